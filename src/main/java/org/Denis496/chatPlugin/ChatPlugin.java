@@ -3,6 +3,7 @@ package org.Denis496.chatPlugin;
 import org.Denis496.chatPlugin.integration.PlayTimeIntegration;
 import org.Denis496.chatPlugin.utils.PlaceholderManager;
 import org.Denis496.chatPlugin.hooks.MarksHook;
+import org.Denis496.chatPlugin.hooks.TeamsHook;
 import org.Denis496.warns.API.WarnsAPI;
 import org.bukkit.Bukkit;
 import org.bukkit.event.HandlerList;
@@ -11,10 +12,17 @@ import org.bukkit.plugin.java.JavaPlugin;
 import org.Denis496.chatPlugin.commands.*;
 import org.Denis496.chatPlugin.listeners.AsyncChatListener;
 import org.Denis496.chatPlugin.listeners.PlayerJoinQuitListener;
+import org.Denis496.chatPlugin.listeners.PlayerMovementListener;
+import org.Denis496.chatPlugin.listeners.PlayerDataListener;
 import org.Denis496.chatPlugin.listeners.LuckPermsEventListener;
 import org.Denis496.chatPlugin.managers.*;
 import org.Denis496.chatPlugin.proxy.VelocityHandler;
+import org.Denis496.chatPlugin.storage.PlayerDataStorage;
+import org.Denis496.chatPlugin.storage.SqlPlayerDataStorage;
+import org.Denis496.chatPlugin.storage.YamlImporter;
+import org.Denis496.chatPlugin.storage.YamlPlayerDataStorage;
 import org.Denis496.chatPlugin.utils.ConfigManager;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 import org.Denis496.chatPlugin.utils.ChatUtils;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
@@ -33,6 +41,7 @@ public class ChatPlugin extends JavaPlugin {
     private PlaceholderManager placeholderManager;
     private VelocityHandler velocityHandler;
     private MarksHook marksHook;
+    private TeamsHook teamsHook;
     private LuckPerms luckPerms;
     private AsyncChatListener asyncChatListener;
     private LuckPermsEventListener luckPermsListener;
@@ -41,6 +50,14 @@ public class ChatPlugin extends JavaPlugin {
     private ChatModeManager chatModeManager;
     private DMManager dmManager;
     private IgnoreManager ignoreManager;
+    private ProximityManager proximityManager;
+    private PlayerStateManager playerStateManager;
+    private ChatPipeline chatPipeline;
+    private BlockingExecutor blockingExecutor;
+    private SessionManager sessionManager;
+    private PlayerDataStorage playerDataStorage;
+    private PlayerMovementListener playerMovementListener;
+    private PlayerDataListener playerDataListener;
 
     @Override
     public void onEnable() {
@@ -63,10 +80,12 @@ public class ChatPlugin extends JavaPlugin {
         initializePlayTimeIntegration();
 
         initializeWarnsAPI();
+        blockingExecutor = new BlockingExecutor(this);
+        initializeStorage();
         initializeManagers();
         initializeHooks();
 
-        if (getConfig().getBoolean("proxy.velocity.enabled", false)) {
+        if (getSettings().proxy().velocityEnabled()) {
             velocityHandler = new VelocityHandler(this);
         }
 
@@ -87,10 +106,17 @@ public class ChatPlugin extends JavaPlugin {
             asyncChatListener.clearAllCaches();
         }
 
+        // Lets queued messages finish before the managers they use shut down
+        if (chatPipeline != null) {
+            chatPipeline.shutdown();
+        }
+
         if (marksHook != null) {
             marksHook.shutdown();
         }
 
+        PlayTimeIntegration.getInstance().stopRefresher();
+
         if (velocityHandler != null) {
             velocityHandler.unregister();
         }
@@ -111,6 +137,23 @@ public class ChatPlugin extends JavaPlugin {
             ignoreManager.shutdown();
         }
 
+        if (proximityManager != null) {
+            proximityManager.shutdown();
+        }
+
+        if (sessionManager != null) {
+            sessionManager.shutdown();
+        }
+
+        // Lets running lookups and writes finish before storage closes
+        if (blockingExecutor != null) {
+            blockingExecutor.shutdown();
+        }
+
+        if (playerDataStorage != null) {
+            playerDataStorage.close();
+        }
+
         Bukkit.getScheduler().cancelTasks(this);
 
         getLogger().info("ChatPlugin disabled!");
@@ -120,6 +163,9 @@ public class ChatPlugin extends JavaPlugin {
         // This will automatically try to hook into PlayTimeTracker if available
         PlayTimeIntegration integration = PlayTimeIntegration.getInstance();
 
+        // Started even if not ready yet, it skips refreshes until the API is available
+        integration.startRefresher(this, getSettings().playTime().refreshSeconds());
+
         // Check if integration was successful
         if (integration.isAvailable()) {
             getLogger().info("PlayTimeTracker integration enabled - playtime features available!");
@@ -205,8 +251,41 @@ public class ChatPlugin extends JavaPlugin {
         return true;
     }
 
+    private void initializeStorage() {
+        String type = getConfig().getString("storage.type", "sqlite").toLowerCase();
+        if (!type.equals("sqlite") && !type.equals("yaml")) {
+            getLogger().warning("Unknown storage type '" + type + "', using SQLite");
+            type = "sqlite";
+        }
+
+        if (type.equals("sqlite")) {
+            SqlPlayerDataStorage sqlStorage = new SqlPlayerDataStorage(this);
+            try {
+                sqlStorage.init();
+
+                YamlImporter importer = new YamlImporter(this);
+                if (getConfig().getBoolean("storage.migrate-yaml", true) && importer.hasLegacyData()) {
+                    importer.importInto(sqlStorage);
+                }
+
+                playerDataStorage = sqlStorage;
+                getLogger().info("Using SQLite storage for player data");
+                return;
+            } catch (Exception e) {
+                getLogger().log(Level.SEVERE, "Failed to initialize SQLite storage, falling back to YAML", e);
+                sqlStorage.close();
+            }
+        }
+
+        YamlPlayerDataStorage yamlStorage = new YamlPlayerDataStorage(this);
+        yamlStorage.init();
+        playerDataStorage = yamlStorage;
+    }
+
     private void initializeManagers() {
         try {
+            sessionManager = new SessionManager(this);
+            chatPipeline = new ChatPipeline(this);
             chatManager = new ChatManager(this);
             mentionManager = new MentionManager(this);
             messageManager = new MessageManager(this);
@@ -215,6 +294,10 @@ public class ChatPlugin extends JavaPlugin {
             chatModeManager = new ChatModeManager(this);
             dmManager = new DMManager(this);
             ignoreManager = new IgnoreManager(this);
+            proximityManager = new ProximityManager(this);
+            playerStateManager = new PlayerStateManager(this);
+            getServer().getPluginManager().registerEvents(playerStateManager, this);
+            sessionManager.loadOnlinePlayers();
         } catch (Exception e) {
             getLogger().log(Level.SEVERE, "Failed to initialize managers", e);
             getServer().getPluginManager().disablePlugin(this);
@@ -233,17 +316,40 @@ public class ChatPlugin extends JavaPlugin {
                 getLogger().log(Level.WARNING, "Failed to hook into Marks plugin", e);
             }
         }
+
+        Plugin teamsPlugin = getServer().getPluginManager().getPlugin("Teams");
+        if (teamsPlugin != null && teamsPlugin.isEnabled()) {
+            try {
+                teamsHook = new TeamsHook(this);
+                getServer().getPluginManager().registerEvents(teamsHook, this);
+            } catch (Exception | NoClassDefFoundError e) {
+                getLogger().log(Level.WARNING, "Failed to hook into Teams plugin", e);
+            }
+        }
     }
 
     private void registerListeners() {
         if (asyncChatListener != null) {
             HandlerList.unregisterAll(asyncChatListener);
+            asyncChatListener.shutdown();
         }
 
         asyncChatListener = new AsyncChatListener(this);
         getServer().getPluginManager().registerEvents(asyncChatListener, this);
         getServer().getPluginManager().registerEvents(new PlayerJoinQuitListener(this), this);
 
+        // Movement listener keeps the spatial index in sync and only needs registering once
+        if (playerMovementListener == null) {
+            playerMovementListener = new PlayerMovementListener(this);
+            getServer().getPluginManager().registerEvents(playerMovementListener, this);
+        }
+
+        // Loads player settings on pre-login and evicts them after quit
+        if (playerDataListener == null) {
+            playerDataListener = new PlayerDataListener(this);
+            getServer().getPluginManager().registerEvents(playerDataListener, this);
+        }
+
         if (luckPerms != null) {
             luckPermsListener = new LuckPermsEventListener(this);
             getLogger().info("Registered LuckPerms event listener for instant prefix updates");
@@ -287,13 +393,14 @@ public class ChatPlugin extends JavaPlugin {
             reloadConfig();
             configManager.reload();
 
-            chatManager = new ChatManager(this);
-            mentionManager = new MentionManager(this);
+            // Managers read the new settings snapshot, only their runtime state is reset
+            mentionManager.reload();
             placeholderManager.reloadPlaceholders();
-            antiSpamManager = new AntiSpamManager(this);
+            antiSpamManager.reload();
             chatModeManager.reload();
             dmManager.reload();
             ignoreManager.reload();
+            sessionManager.reloadOnlinePlayers();
 
             if (asyncChatListener != null) {
                 asyncChatListener.clearAllCaches();
@@ -309,6 +416,7 @@ public class ChatPlugin extends JavaPlugin {
 
             // Reinitialize PlayTimeTracker integration
             PlayTimeIntegration.getInstance().reinitialize();
+            PlayTimeIntegration.getInstance().startRefresher(this, getSettings().playTime().refreshSeconds());
 
             initializeWarnsAPI();
 
@@ -316,7 +424,13 @@ public class ChatPlugin extends JavaPlugin {
                 marksHook.reload();
             }
 
-            boolean velocityEnabled = getConfig().getBoolean("proxy.velocity.enabled", false);
+            if (teamsHook != null) {
+                teamsHook.reload();
+            }
+
+            chatPipeline.reload();
+
+            boolean velocityEnabled = getSettings().proxy().velocityEnabled();
             if (velocityHandler != null && !velocityEnabled) {
                 velocityHandler.unregister();
                 velocityHandler = null;
@@ -348,7 +462,7 @@ public class ChatPlugin extends JavaPlugin {
             placeholderManager.clearPlayerCache(player);
         }
 
-        if (getConfig().getBoolean("debug", false)) {
+        if (getSettings().debug()) {
             getLogger().info("Refreshed cache for player: " + player.getName());
         }
     }
@@ -357,6 +471,10 @@ public class ChatPlugin extends JavaPlugin {
         return instance;
     }
 
+    public ChatSettings getSettings() {
+        return configManager.getSettings();
+    }
+
     public ConfigManager getConfigManager() {
         return configManager;
     }
@@ -385,6 +503,10 @@ public class ChatPlugin extends JavaPlugin {
         return marksHook;
     }
 
+    public TeamsHook getTeamsHook() {
+        return teamsHook;
+    }
+
     public LuckPerms getLuckPerms() {
         return luckPerms;
     }
@@ -412,4 +534,28 @@ public class ChatPlugin extends JavaPlugin {
     public IgnoreManager getIgnoreManager() {
         return ignoreManager;
     }
+
+    public ProximityManager getProximityManager() {
+        return proximityManager;
+    }
+
+    public PlayerStateManager getPlayerStateManager() {
+        return playerStateManager;
+    }
+
+    public ChatPipeline getChatPipeline() {
+        return chatPipeline;
+    }
+
+    public BlockingExecutor getBlockingExecutor() {
+        return blockingExecutor;
+    }
+
+    public SessionManager getSessionManager() {
+        return sessionManager;
+    }
+
+    public PlayerDataStorage getPlayerDataStorage() {
+        return playerDataStorage;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package org.Denis496.chatPlugin.api;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+
+/**
+ * A {@code :key:} chat placeholder contributed by another plugin. Register it with
+ * {@code ChatPlugin.getPlaceholderManager().registerProvider(provider)}.
+ * <p>
+ * Chat is rendered on Paper's async chat thread. The declared cost and cache policy decide how
+ * the placeholder is resolved there:
+ * <ul>
+ *     <li>a cache duration reuses the sender's value for that long;</li>
+ *     <li>a provider that needs the main thread is called there with a short time budget. If its
+ *     cache lasts at least two seconds, it is also kept warm on the main thread for players who
+ *     used it in the last minute;</li>
+ *     <li>everything else is called inline on the chat thread.</li>
+ * </ul>
+ */
+public interface PlaceholderProvider {
+
+    enum Scope {
+        /** The value only depends on the sender, so it can be cached per sender. */
+        SENDER,
+        /**
+         * The value changes between messages in ways a cache would hide (e.g. it depends on who is
+         * online). Never cached; the message is still rendered once for all viewers.
+         */
+        VIEWER
+    }
+
+    /**
+     * The placeholder name, used as {@code :key:} in chat.
+     */
+    String getKey();
+
+    /**
+     * @param sender the player whose message is rendered
+     */
+    Component resolve(Player sender);
+
+    /**
+     * How long a sender's value may be reused, 0 to resolve it on every message.
+     */
+    default long getCacheMillis() {
+        return 0L;
+    }
+
+    /**
+     * Whether {@link #resolve} reads world or entity state that is only safe on the main thread.
+     */
+    default boolean requiresMainThread() {
+        return false;
+    }
+
+    default Scope getScope() {
+        return Scope.SENDER;
+    }
+}
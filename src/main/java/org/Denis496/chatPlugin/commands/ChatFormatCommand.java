@@ -1,6 +1,7 @@
 package org.Denis496.chatPlugin.commands;
 
 import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 import org.Denis496.chatPlugin.utils.ChatUtils;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -23,7 +24,7 @@ public class ChatFormatCommand implements CommandExecutor, TabCompleter {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!sender.hasPermission("chat.admin.format")) {
-            sender.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            sender.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
@@ -153,9 +154,9 @@ public class ChatFormatCommand implements CommandExecutor, TabCompleter {
         // Default formats
         String defaultFormat;
         if (type.equals("local")) {
-            defaultFormat = "&eL &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}";
+            defaultFormat = ChatSettings.DEFAULT_LOCAL_FORMAT;
         } else {
-            defaultFormat = "&cG &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}";
+            defaultFormat = ChatSettings.DEFAULT_GLOBAL_FORMAT;
         }
 
         plugin.getConfig().set("chat." + type + ".format", defaultFormat);
@@ -166,8 +167,9 @@ public class ChatFormatCommand implements CommandExecutor, TabCompleter {
     }
 
     private void handleInfo(CommandSender sender) {
-        String localFormat = plugin.getConfig().getString("chat.local.format", "&eL &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}");
-        String globalFormat = plugin.getConfig().getString("chat.global.format", "&cG &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}");
+        // Formats in effect, edits show up here after a reload
+        String localFormat = plugin.getSettings().chat().localFormat();
+        String globalFormat = plugin.getSettings().chat().globalFormat();
 
         sender.sendMessage(ChatUtils.colorize("&6=== Current Chat Formats ==="));
         sender.sendMessage("");
@@ -1,7 +1,9 @@
 package org.Denis496.chatPlugin.commands;
 
 import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.managers.ChatPipeline.PipelineStats;
 import org.Denis496.chatPlugin.utils.ChatUtils;
+import org.Denis496.chatPlugin.utils.PlaceholderManager.PlaceholderStats;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -22,13 +24,13 @@ public class ChatPluginCommand implements CommandExecutor, TabCompleter {
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (!sender.hasPermission("chat.admin")) {
-            sender.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            sender.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
         if (args.length == 0) {
             sender.sendMessage(ChatUtils.colorize("&6ChatPlugin &7v1.0.0 by YourName"));
-            sender.sendMessage(ChatUtils.colorize("&7Usage: /" + label + " reload"));
+            sender.sendMessage(ChatUtils.colorize("&7Usage: /" + label + " <reload|stats>"));
             return true;
         }
 
@@ -38,6 +40,25 @@ public class ChatPluginCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (args[0].equalsIgnoreCase("stats")) {
+            PipelineStats pipeline = plugin.getChatPipeline().getStats();
+            sender.sendMessage(ChatUtils.colorize("&6Chat pipeline: &7queue &f" + pipeline.queueDepth() + "&7/&f" + pipeline.queueLimit()
+                    + " &7active &f" + pipeline.activeThreads() + " &7submitted &f" + pipeline.submitted()
+                    + " &7rejected &f" + pipeline.rejected() + " &7dropped &f" + pipeline.dropped()));
+            sender.sendMessage(ChatUtils.colorize("&7Queue wait: avg &f" + pipeline.averageWaitMicros() + "µs &7max &f"
+                    + pipeline.maxWaitMicros() + "µs"));
+            sender.sendMessage(ChatUtils.colorize("&7Blocking calls: &f"
+                    + (plugin.getBlockingExecutor().isVirtual() ? "virtual threads" : "Bukkit scheduler")));
+            sender.sendMessage(ChatUtils.colorize("&6Placeholder cache &7(hits / evaluations):"));
+            for (PlaceholderStats stats : plugin.getPlaceholderManager().getStats()) {
+                sender.sendMessage(ChatUtils.colorize("&7- &e:" + stats.key() + ": &8(" + (stats.component() ? "component" : "text")
+                        + ", " + (stats.cacheMillis() > 0 ? stats.cacheMillis() + "ms" : "not cached")
+                        + (stats.mainThread() ? ", main thread" : "") + ") &f"
+                        + stats.hits() + " &7/ &f" + stats.misses() + " &7avg &f" + stats.averageMicros() + "µs"));
+            }
+            return true;
+        }
+
         sender.sendMessage(ChatUtils.colorize("&cUnknown subcommand. Use /" + label + " for help."));
         return true;
     }
@@ -45,7 +66,7 @@ public class ChatPluginCommand implements CommandExecutor, TabCompleter {
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (args.length == 1) {
-            return Arrays.asList("reload").stream()
+            return Arrays.asList("reload", "stats").stream()
                     .filter(s -> s.toLowerCase().startsWith(args[0].toLowerCase()))
                     .collect(Collectors.toList());
         }
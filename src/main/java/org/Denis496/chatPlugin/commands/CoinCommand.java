@@ -30,13 +30,13 @@ public class CoinCommand implements CommandExecutor {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.coin")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
         String result = random.nextBoolean() ? "Heads" : "Tails";
 
-        String format = plugin.getConfig().getString("commands.coin.format", "&eCoin toss result: &6{RESULT}");
+        String format = plugin.getSettings().commands().coinFormat();
         String message = format.replace("{RESULT}", result);
 
         Bukkit.broadcastMessage(ChatUtils.colorize(message));
@@ -30,7 +30,7 @@ public class DMCommand implements CommandExecutor, TabCompleter {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.dm")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
@@ -42,11 +42,17 @@ public class DMCommand implements CommandExecutor, TabCompleter {
         String subCommand = args[0].toLowerCase();
 
         if (subCommand.equals("on")) {
-            plugin.getDMManager().setDMEnabled(player, true);
+            if (!plugin.getDMManager().setDMEnabled(player, true)) {
+                player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().dataUnavailable()));
+                return true;
+            }
             player.sendMessage(ChatUtils.colorize("&aDirect messages have been &2enabled&a!"));
             player.sendMessage(ChatUtils.colorize("&7Other players can now send you private messages."));
         } else if (subCommand.equals("off")) {
-            plugin.getDMManager().setDMEnabled(player, false);
+            if (!plugin.getDMManager().setDMEnabled(player, false)) {
+                player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().dataUnavailable()));
+                return true;
+            }
             player.sendMessage(ChatUtils.colorize("&cDirect messages have been &4disabled&c!"));
             player.sendMessage(ChatUtils.colorize("&7Other players cannot send you private messages."));
             player.sendMessage(ChatUtils.colorize("&7Note: You also cannot send messages to others while DMs are off."));
@@ -26,11 +26,14 @@ public class GlobalCommand implements CommandExecutor {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.global")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
-        plugin.getChatModeManager().setPlayerMode(player, ChatModeManager.ChatMode.GLOBAL);
+        if (!plugin.getChatModeManager().setPlayerMode(player, ChatModeManager.ChatMode.GLOBAL)) {
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().dataUnavailable()));
+            return true;
+        }
         player.sendMessage(ChatUtils.colorize("&aYou have switched to &cGlobal &achat mode!"));
         player.sendMessage(ChatUtils.colorize("&7All your messages will now be sent to global chat."));
         player.sendMessage(ChatUtils.colorize("&7Use &e/local &7to switch back to local chat."));
@@ -33,7 +33,7 @@ public class IgnoreCommand implements CommandExecutor, TabCompleter {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.ignore")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
@@ -64,10 +64,16 @@ public class IgnoreCommand implements CommandExecutor, TabCompleter {
         }
 
         if (plugin.getIgnoreManager().isIgnoring(player, target)) {
-            plugin.getIgnoreManager().removeIgnore(player, target);
+            if (!plugin.getIgnoreManager().removeIgnore(player, target)) {
+                player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().dataUnavailable()));
+                return true;
+            }
             player.sendMessage(ChatUtils.colorize("&aYou are no longer ignoring &e" + target.getName() + "&a."));
         } else {
-            plugin.getIgnoreManager().addIgnore(player, target);
+            if (!plugin.getIgnoreManager().addIgnore(player, target)) {
+                player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().dataUnavailable()));
+                return true;
+            }
             player.sendMessage(ChatUtils.colorize("&cYou are now ignoring &e" + target.getName() + "&c."));
             player.sendMessage(ChatUtils.colorize("&7You will not see messages from this player."));
         }
@@ -26,11 +26,14 @@ public class LocalCommand implements CommandExecutor {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.local")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
-        plugin.getChatModeManager().setPlayerMode(player, ChatModeManager.ChatMode.LOCAL);
+        if (!plugin.getChatModeManager().setPlayerMode(player, ChatModeManager.ChatMode.LOCAL)) {
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().dataUnavailable()));
+            return true;
+        }
         player.sendMessage(ChatUtils.colorize("&aYou have switched to &eLocal &achat mode!"));
         player.sendMessage(ChatUtils.colorize("&7Your messages will now be sent to local chat by default."));
         player.sendMessage(ChatUtils.colorize("&7Use &e! &7prefix to send a message to global chat."));
@@ -3,7 +3,7 @@ package org.Denis496.chatPlugin.commands;
 import org.Denis496.chatPlugin.ChatPlugin;
 import org.Denis496.chatPlugin.utils.ChatUtils;
 import org.Denis496.chatPlugin.managers.MessageManager;
-import org.Denis496.warns.API.WarnsAPI;
+import org.Denis496.chatPlugin.hooks.MuteCheck;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -33,7 +33,7 @@ public class MessageCommand implements CommandExecutor, TabCompleter {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.message")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
@@ -42,9 +42,9 @@ public class MessageCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
-        WarnsAPI warnsAPI = plugin.getWarnsAPI();
-        if (warnsAPI != null && warnsAPI.isPlayerMuted(player)) {
-            org.Denis496.warns.models.Mute mute = warnsAPI.getActiveMute(player);
+        MuteCheck.Result muteCheck = MuteCheck.check(plugin, player);
+        if (muteCheck.muted()) {
+            org.Denis496.warns.models.Mute mute = muteCheck.mute();
             if (mute != null) {
                 player.sendMessage(ChatUtils.colorize("&cYou cannot send messages while muted!"));
                 player.sendMessage(ChatUtils.colorize("&7Time remaining: &e" + mute.getRemainingTimeFormatted()));
@@ -62,7 +62,7 @@ public class MessageCommand implements CommandExecutor, TabCompleter {
 
         Player target = Bukkit.getPlayer(args[0]);
         if (target == null) {
-            String notFound = plugin.getConfig().getString("messages.player-not-found", "&cPlayer '{PLAYER}' not found!");
+            String notFound = plugin.getSettings().messages().playerNotFound();
             player.sendMessage(ChatUtils.colorize(notFound.replace("{PLAYER}", args[0])));
             return true;
         }
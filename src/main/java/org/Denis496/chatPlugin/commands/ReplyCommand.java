@@ -3,7 +3,7 @@ package org.Denis496.chatPlugin.commands;
 import org.Denis496.chatPlugin.ChatPlugin;
 import org.Denis496.chatPlugin.utils.ChatUtils;
 import org.Denis496.chatPlugin.managers.MessageManager;
-import org.Denis496.warns.API.WarnsAPI;
+import org.Denis496.chatPlugin.hooks.MuteCheck;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
@@ -27,7 +27,7 @@ public class ReplyCommand implements CommandExecutor {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.reply")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
@@ -36,9 +36,9 @@ public class ReplyCommand implements CommandExecutor {
             return true;
         }
 
-        WarnsAPI warnsAPI = plugin.getWarnsAPI();
-        if (warnsAPI != null && warnsAPI.isPlayerMuted(player)) {
-            org.Denis496.warns.models.Mute mute = warnsAPI.getActiveMute(player);
+        MuteCheck.Result muteCheck = MuteCheck.check(plugin, player);
+        if (muteCheck.muted()) {
+            org.Denis496.warns.models.Mute mute = muteCheck.mute();
             if (mute != null) {
                 player.sendMessage(ChatUtils.colorize("&cYou cannot send messages while muted!"));
                 player.sendMessage(ChatUtils.colorize("&7Time remaining: &e" + mute.getRemainingTimeFormatted()));
@@ -56,7 +56,7 @@ public class ReplyCommand implements CommandExecutor {
 
         Player target = plugin.getMessageManager().getLastMessenger(player);
         if (target == null) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-reply")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noReply()));
             return true;
         }
 
@@ -30,7 +30,7 @@ public class RollCommand implements CommandExecutor {
         Player player = (Player) sender;
 
         if (!player.hasPermission("chat.command.roll")) {
-            player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("messages.no-permission")));
+            player.sendMessage(ChatUtils.colorize(plugin.getSettings().messages().noPermission()));
             return true;
         }
 
@@ -40,18 +40,18 @@ public class RollCommand implements CommandExecutor {
             try {
                 max = Integer.parseInt(args[0]);
                 if (max < 1 || max > 1000) {
-                    player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("commands.roll.invalid-number")));
+                    player.sendMessage(ChatUtils.colorize(plugin.getSettings().commands().rollInvalidNumber()));
                     return true;
                 }
             } catch (NumberFormatException e) {
-                player.sendMessage(ChatUtils.colorize(plugin.getConfig().getString("commands.roll.invalid-number")));
+                player.sendMessage(ChatUtils.colorize(plugin.getSettings().commands().rollInvalidNumber()));
                 return true;
             }
         }
 
         int result = random.nextInt(max) + 1;
 
-        String format = plugin.getConfig().getString("commands.roll.format", "&6{PLAYER} &erolled a dice and got &6{RESULT}");
+        String format = plugin.getSettings().commands().rollFormat();
         String message = format
                 .replace("{PLAYER}", player.getName())
                 .replace("{RESULT}", String.valueOf(result));
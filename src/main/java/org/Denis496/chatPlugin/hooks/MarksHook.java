@@ -1,7 +1,6 @@
 package org.Denis496.chatPlugin.hooks;
 
 import net.kyori.adventure.text.Component;
-import net.kyori.adventure.text.TextReplacementConfig;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.bukkit.Bukkit;
@@ -11,43 +10,93 @@ import org.Denis496.marks.Marks;
 import org.Denis496.marks.models.Mark;
 
 import java.sql.SQLException;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
 public class MarksHook {
     private final ChatPlugin plugin;
-    private final Pattern markPattern = Pattern.compile(":x(\\d{4}):", Pattern.CASE_INSENSITIVE);
-    private final Pattern quickCheckPattern = Pattern.compile(":x\\d");
 
     private Marks marksPlugin;
     private boolean isHooked = false;
 
-    // Simple caching
-    private final ConcurrentHashMap<String, CachedMark> markCache = new ConcurrentHashMap<>();
+    // Marks are loaded off the chat thread and refreshed in the background before they expire
     private static final long CACHE_DURATION = 300000L; // 5 minutes cache
+    private static final long REFRESH_AFTER = 240000L; // Reload in the background after 4 minutes
+    private static final int MAX_CACHED_MARKS = 2000;
 
-    private static class CachedMark {
-        final Component component;
-        final long expireTime;
-
-        CachedMark(Component component) {
-            this.component = component;
-            this.expireTime = System.currentTimeMillis() + CACHE_DURATION;
-        }
-
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
-        }
-    }
+    private final AsyncLoadingCache<String, Component> markCache;
+    // Ids whose lookup failed recently, so a broken database is not queried on every message
+    private volatile Cache<String, Boolean> failedLookups;
+    private volatile long lookupBudget;
 
     public MarksHook(ChatPlugin plugin) {
         this.plugin = plugin;
+        this.markCache = Caffeine.newBuilder()
+                .maximumSize(MAX_CACHED_MARKS)
+                .expireAfterWrite(CACHE_DURATION, TimeUnit.MILLISECONDS)
+                .refreshAfterWrite(REFRESH_AFTER, TimeUnit.MILLISECONDS)
+                .executor(plugin.getBlockingExecutor())
+                .buildAsync(new MarkLoader());
+        loadSettings();
         tryHook();
+    }
+
+    private void loadSettings() {
+        this.lookupBudget = plugin.getSettings().marks().lookupBudgetMs();
+        this.failedLookups = Caffeine.newBuilder()
+                .expireAfterWrite(plugin.getSettings().marks().failureCacheSeconds(), TimeUnit.SECONDS)
+                .build();
+    }
+
+    private class MarkLoader implements CacheLoader<String, Component> {
+        @Override
+        public Component load(String markId) throws Exception {
+            Marks marks = marksPlugin;
+            if (marks == null) {
+                return null;
+            }
 
-        if (isHooked) {
-            // Cache cleanup task
-            Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::cleanupCache, 6000L, 6000L); // Every 5 minutes
+            try {
+                Mark mark = marks.getMarksManager().getMarkByMarkId(markId);
+                if (mark != null) {
+                    return createMarkComponent(mark, markId);
+                }
+                // Mark not found
+                return Component.text("[Unknown Mark #" + markId + "]", NamedTextColor.RED);
+            } catch (SQLException e) {
+                if (failedLookups.asMap().putIfAbsent(markId, Boolean.TRUE) == null) {
+                    plugin.getLogger().warning("Failed to load mark " + markId + ": " + e.getMessage());
+                }
+                throw e;
+            }
+        }
+
+        // All ids missing from one message are loaded by a single background task
+        @Override
+        public Map<String, Component> loadAll(Set<? extends String> markIds) {
+            Map<String, Component> result = new HashMap<>(markIds.size());
+            for (String markId : markIds) {
+                try {
+                    Component component = load(markId);
+                    if (component != null) {
+                        result.put(markId, component);
+                    }
+                } catch (Exception ignored) {
+                    // Recorded in failedLookups, rendered as an error until it expires
+                }
+            }
+            return result;
         }
     }
 
@@ -71,78 +120,75 @@ public class MarksHook {
         }
     }
 
-    private void cleanupCache() {
-        markCache.entrySet().removeIf(entry -> entry.getValue().isExpired());
-    }
-
-    public Component processMarkPlaceholders(Component message) {
-        if (!isHooked) {
-            return message;
+    /**
+     * Resolves every mark of a message with one batched lookup. Marks that are not loaded
+     * within the lookup budget render as a placeholder and show up in later messages once
+     * the lookup completes.
+     */
+    public Map<String, Component> resolveMarks(Collection<String> markIds) {
+        Map<String, Component> result = new HashMap<>(markIds.size());
+        Set<String> lookup = new LinkedHashSet<>();
+
+        for (String markId : markIds) {
+            if (failedLookups.getIfPresent(markId) != null) {
+                result.put(markId, errorComponent());
+            } else {
+                lookup.add(markId);
+            }
         }
 
-        // Convert to plain text for pattern matching
-        String plainText = plainTextSerializer(message);
-
-        // Quick check to avoid regex overhead
-        if (!quickCheckPattern.matcher(plainText).find()) {
-            return message;
+        if (lookup.isEmpty() || !isHooked) {
+            return result;
         }
 
-        // Find all marks in the message
-        Matcher matcher = markPattern.matcher(plainText);
-        if (!matcher.find()) {
-            return message;
+        CompletableFuture<Map<String, Component>> future = markCache.getAll(lookup);
+        Map<String, Component> loaded;
+        try {
+            loaded = future.get(lookupBudget, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            loaded = completedMarks(lookup);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            loaded = completedMarks(lookup);
+        } catch (Exception e) {
+            loaded = completedMarks(lookup);
         }
 
-        // Reset matcher for processing
-        matcher.reset();
-
-        // Process all marks
-        Component result = message;
-        while (matcher.find()) {
-            String markId = matcher.group(1);
-            String fullMatch = matcher.group(0);
-
-            // Get mark component (from cache or load)
-            Component markComponent = getMarkComponent(markId);
-
-            // Replace in the message
-            TextReplacementConfig config = TextReplacementConfig.builder()
-                    .matchLiteral(fullMatch)
-                    .replacement(markComponent)
-                    .build();
-
-            result = result.replaceText(config);
+        for (String markId : lookup) {
+            Component component = loaded.get(markId);
+            if (component != null) {
+                result.put(markId, component);
+            } else if (failedLookups.getIfPresent(markId) != null) {
+                result.put(markId, errorComponent());
+            } else {
+                result.put(markId, Component.text("[Mark #" + markId + "]", NamedTextColor.GRAY));
+            }
         }
 
         return result;
     }
 
-    private Component getMarkComponent(String markId) {
-        // Check cache first
-        CachedMark cached = markCache.get(markId);
-
-        if (cached != null && !cached.isExpired()) {
-            return cached.component;
-        }
+    public Component getMarkComponent(String markId) {
+        return resolveMarks(Set.of(markId)).get(markId);
+    }
 
-        // Load mark synchronously (we're already in async context from chat)
-        try {
-            Mark mark = marksPlugin.getMarksManager().getMarkByMarkId(markId);
-            if (mark != null) {
-                Component component = createMarkComponent(mark, markId);
-                markCache.put(markId, new CachedMark(component));
-                return component;
-            } else {
-                // Mark not found
-                Component notFound = Component.text("[Unknown Mark #" + markId + "]", NamedTextColor.RED);
-                markCache.put(markId, new CachedMark(notFound));
-                return notFound;
+    // Whatever finished loading before the budget ran out
+    private Map<String, Component> completedMarks(Set<String> markIds) {
+        Map<String, Component> completed = new HashMap<>();
+        for (String markId : markIds) {
+            CompletableFuture<Component> future = markCache.getIfPresent(markId);
+            if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+                Component component = future.join();
+                if (component != null) {
+                    completed.put(markId, component);
+                }
             }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Failed to load mark " + markId + ": " + e.getMessage());
-            return Component.text("[Error loading mark]", NamedTextColor.RED);
         }
+        return completed;
+    }
+
+    private Component errorComponent() {
+        return Component.text("[Error loading mark]", NamedTextColor.RED);
     }
 
     private Component createMarkComponent(Mark mark, String markId) {
@@ -205,31 +251,17 @@ public class MarksHook {
         }
     }
 
-    private String plainTextSerializer(Component component) {
-        StringBuilder builder = new StringBuilder();
-        extractText(component, builder);
-        return builder.toString();
-    }
-
-    private void extractText(Component component, StringBuilder builder) {
-        if (component instanceof net.kyori.adventure.text.TextComponent textComponent) {
-            builder.append(textComponent.content());
-        }
-
-        for (Component child : component.children()) {
-            extractText(child, builder);
-        }
-    }
-
     public void reload() {
         isHooked = false;
-        markCache.clear();
+        markCache.synchronous().invalidateAll();
         marksPlugin = null;
+        loadSettings();
         tryHook();
     }
 
     public void shutdown() {
-        markCache.clear();
+        markCache.synchronous().invalidateAll();
+        failedLookups.invalidateAll();
     }
 
     public boolean isHooked() {
@@ -0,0 +1,38 @@
+package org.Denis496.chatPlugin.hooks;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.warns.API.WarnsAPI;
+import org.Denis496.warns.models.Mute;
+import org.bukkit.entity.Player;
+
+/**
+ * WarnsPlugin mute lookup, run on the {@link org.Denis496.chatPlugin.managers.BlockingExecutor}
+ * so chat and the message commands wait a bounded time instead of blocking on WarnsPlugin.
+ */
+public final class MuteCheck {
+
+    /**
+     * @param mute the active mute, null if not muted or WarnsPlugin has no details
+     */
+    public record Result(boolean muted, Mute mute) {
+        public static final Result NOT_MUTED = new Result(false, null);
+    }
+
+    private MuteCheck() {
+    }
+
+    /**
+     * Not muted if WarnsPlugin is missing or the lookup timed out.
+     */
+    public static Result check(ChatPlugin plugin, Player player) {
+        WarnsAPI warnsAPI = plugin.getWarnsAPI();
+        if (warnsAPI == null) {
+            return Result.NOT_MUTED;
+        }
+
+        return plugin.getBlockingExecutor().call(() -> warnsAPI.isPlayerMuted(player)
+                        ? new Result(true, warnsAPI.getActiveMute(player))
+                        : Result.NOT_MUTED,
+                Result.NOT_MUTED, "WarnsPlugin mute check");
+    }
+}
@@ -0,0 +1,194 @@
+package org.Denis496.chatPlugin.hooks;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.NamedTextColor;
+import org.bukkit.Bukkit;
+import org.bukkit.command.PluginCommand;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.plugin.Plugin;
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.plugin.teams.api.TeamsAPI;
+
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Caches team lookups for the :team: placeholder. Player to team mappings and team details
+ * are kept for teams.cache-seconds and dropped as soon as a Teams command runs, since the
+ * Teams API has no change events to listen to.
+ */
+public class TeamsHook implements Listener {
+    private final ChatPlugin plugin;
+    private final Set<String> teamCommands = new HashSet<>();
+
+    private volatile Cache<UUID, Optional<String>> playerTeams;
+    private volatile Cache<String, TeamInfo> teams;
+
+    /**
+     * Everything the placeholder shows for a team, with the component built once.
+     */
+    public record TeamInfo(String name, String owner, int memberCount, Component component) {}
+
+    public TeamsHook(ChatPlugin plugin) {
+        this.plugin = plugin;
+        loadSettings();
+        loadTeamCommands();
+    }
+
+    private void loadSettings() {
+        long ttl = plugin.getSettings().teams().cacheSeconds();
+        this.playerTeams = Caffeine.newBuilder()
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build();
+        this.teams = Caffeine.newBuilder()
+                .maximumSize(1000)
+                .expireAfterWrite(ttl, TimeUnit.SECONDS)
+                .build();
+    }
+
+    private void loadTeamCommands() {
+        Plugin teamsPlugin = Bukkit.getPluginManager().getPlugin("Teams");
+        if (teamsPlugin == null) {
+            return;
+        }
+
+        for (String name : teamsPlugin.getDescription().getCommands().keySet()) {
+            teamCommands.add(name.toLowerCase(Locale.ROOT));
+            PluginCommand command = Bukkit.getPluginCommand(name);
+            if (command != null) {
+                for (String alias : command.getAliases()) {
+                    teamCommands.add(alias.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+    }
+
+    /**
+     * The player's team, or null if they have none or the lookup failed.
+     */
+    public TeamInfo getTeam(Player player) {
+        // A lookup that timed out is not cached, the next message tries again
+        return getTeamName(player)
+                .map(name -> teams.get(name, key -> plugin.getBlockingExecutor().call(() -> loadTeam(key), null, "Teams lookup")))
+                .orElse(null);
+    }
+
+    private Optional<String> getTeamName(Player player) {
+        // A failed lookup returns null so it is not cached as "no team"
+        Optional<String> teamName = playerTeams.get(player.getUniqueId(), uuid -> plugin.getBlockingExecutor().call(() -> {
+            try {
+                return Optional.ofNullable(TeamsAPI.getTeamName(player));
+            } catch (Exception e) {
+                return null;
+            }
+        }, null, "Teams lookup"));
+        return teamName != null ? teamName : Optional.empty();
+    }
+
+    private TeamInfo loadTeam(String teamName) {
+        int memberCount = 1;
+        String owner = "Unknown";
+
+        try {
+            memberCount = TeamsAPI.getTeamMemberCount(teamName);
+
+            String teamOwner = TeamsAPI.getTeamOwner(teamName);
+            if (teamOwner != null && !teamOwner.isEmpty()) {
+                owner = teamOwner;
+            }
+        } catch (Exception ignored) {}
+
+        TextComponent.Builder hoverBuilder = Component.text();
+        hoverBuilder.append(Component.text("Team Information", NamedTextColor.YELLOW));
+        hoverBuilder.append(Component.newline());
+        hoverBuilder.append(Component.newline());
+        hoverBuilder.append(Component.text("Team: ", NamedTextColor.GRAY));
+        hoverBuilder.append(Component.text(teamName, NamedTextColor.GREEN));
+        hoverBuilder.append(Component.newline());
+        hoverBuilder.append(Component.text("Owner: ", NamedTextColor.GRAY));
+        hoverBuilder.append(Component.text(owner, NamedTextColor.WHITE));
+        hoverBuilder.append(Component.newline());
+        hoverBuilder.append(Component.text("Members: ", NamedTextColor.GRAY));
+        hoverBuilder.append(Component.text(memberCount, NamedTextColor.WHITE));
+
+        Component component = Component.text("[" + teamName + "]", NamedTextColor.GREEN)
+                .hoverEvent(HoverEvent.showText(hoverBuilder.build()));
+        return new TeamInfo(teamName, owner, memberCount, component);
+    }
+
+    // Only the sender and the teams they leave or join are refreshed. Other players affected by
+    // the command (kicked, disbanded) catch up when their entries expire
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onCommand(PlayerCommandPreprocessEvent event) {
+        String message = event.getMessage();
+        int end = message.indexOf(' ');
+        String label = (end == -1 ? message.substring(1) : message.substring(1, end)).toLowerCase(Locale.ROOT);
+        int namespace = label.indexOf(':');
+        if (namespace != -1) {
+            label = label.substring(namespace + 1);
+        }
+
+        if (teamCommands.contains(label)) {
+            Player player = event.getPlayer();
+            Optional<String> previousTeam = playerTeams.getIfPresent(player.getUniqueId());
+            // The command runs after this event
+            Bukkit.getScheduler().runTask(plugin, () -> refreshAfterCommand(player, previousTeam));
+        }
+    }
+
+    private void refreshAfterCommand(Player player, Optional<String> previousTeam) {
+        playerTeams.invalidate(player.getUniqueId());
+        if (previousTeam != null) {
+            previousTeam.ifPresent(teams::invalidate);
+        }
+
+        plugin.getBlockingExecutor().execute(() -> {
+            Optional<String> currentTeam = getTeamName(player);
+            if (!currentTeam.equals(previousTeam)) {
+                // Its member count changed if the player just joined it
+                currentTeam.ifPresent(teams::invalidate);
+            }
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        preload(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        playerTeams.invalidate(event.getPlayer().getUniqueId());
+    }
+
+    /**
+     * Looks the player's team up on the blocking executor so chat finds it cached.
+     */
+    public void preload(Player player) {
+        plugin.getBlockingExecutor().execute(() -> getTeam(player));
+    }
+
+    public void invalidateAll() {
+        playerTeams.invalidateAll();
+        teams.invalidateAll();
+    }
+
+    public void reload() {
+        loadSettings();
+    }
+}
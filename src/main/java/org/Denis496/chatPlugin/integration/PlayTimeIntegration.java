@@ -2,7 +2,18 @@ package org.Denis496.chatPlugin.integration;
 
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 
 /**
@@ -16,10 +27,25 @@ public class PlayTimeIntegration {
 
     private boolean isAvailable = false;
     private Object apiInstance = null;
-    private Method getTotalHoursMethod = null;
-    private Method getDailyHoursMethod = null;
-    private Method getWeeklyHoursMethod = null;
-    private Method getMonthlyHoursMethod = null;
+    private HoursGetter totalHoursGetter = null;
+    private HoursGetter dailyHoursGetter = null;
+    private HoursGetter weeklyHoursGetter = null;
+    private HoursGetter monthlyHoursGetter = null;
+
+    // Hours of online players, refreshed in the background so chat never calls PlayTimeTracker
+    private final Map<UUID, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private BukkitTask refreshTask = null;
+
+    public record Snapshot(double totalHours, double dailyHours, double weeklyHours, double monthlyHours) {}
+
+    /**
+     * Typed accessor bound to the API instance, so calls return a primitive double
+     * without reflective access checks.
+     */
+    @FunctionalInterface
+    private interface HoursGetter {
+        double get(Player player);
+    }
 
     private PlayTimeIntegration() {
         initialize();
@@ -70,11 +96,11 @@ public class PlayTimeIntegration {
                 return;
             }
 
-            // Get method references for better performance
-            getTotalHoursMethod = apiClass.getMethod("getTotalHours", Player.class);
-            getDailyHoursMethod = apiClass.getMethod("getDailyHours", Player.class);
-            getWeeklyHoursMethod = apiClass.getMethod("getWeeklyHours", Player.class);
-            getMonthlyHoursMethod = apiClass.getMethod("getMonthlyHours", Player.class);
+            // Bound once here; the JIT can inline through the generated lambdas
+            totalHoursGetter = bind(apiClass, "getTotalHours");
+            dailyHoursGetter = bind(apiClass, "getDailyHours");
+            weeklyHoursGetter = bind(apiClass, "getWeeklyHours");
+            monthlyHoursGetter = bind(apiClass, "getMonthlyHours");
 
             isAvailable = true;
             logger.info("[ChatPlugin] Successfully integrated with PlayTimeTracker API!");
@@ -86,19 +112,101 @@ public class PlayTimeIntegration {
         }
     }
 
+    private HoursGetter bind(Class<?> apiClass, String name) throws ReflectiveOperationException {
+        Method method = apiClass.getMethod(name, Player.class);
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle = lookup.unreflect(method);
+
+        try {
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "get",
+                    MethodType.methodType(HoursGetter.class, apiClass),
+                    MethodType.methodType(double.class, Player.class),
+                    handle,
+                    MethodType.methodType(double.class, Player.class));
+            return (HoursGetter) site.getTarget().invoke(apiInstance);
+        } catch (Throwable e) {
+            // The API class may not be visible to the generated lambda, fall back to the bound handle
+            MethodHandle bound = handle.bindTo(apiInstance).asType(MethodType.methodType(double.class, Player.class));
+            return player -> {
+                try {
+                    return (double) bound.invokeExact(player);
+                } catch (Throwable t) {
+                    return 0.0;
+                }
+            };
+        }
+    }
+
     /**
      * Reinitialize the integration (useful after reloads)
      */
     public void reinitialize() {
         isAvailable = false;
         apiInstance = null;
-        getTotalHoursMethod = null;
-        getDailyHoursMethod = null;
-        getWeeklyHoursMethod = null;
-        getMonthlyHoursMethod = null;
+        totalHoursGetter = null;
+        dailyHoursGetter = null;
+        weeklyHoursGetter = null;
+        monthlyHoursGetter = null;
         initialize();
     }
 
+    /**
+     * Starts (or restarts) the async task that refreshes the snapshots every {@code periodSeconds}.
+     */
+    public void startRefresher(Plugin plugin, long periodSeconds) {
+        stopRefresher();
+        long period = Math.max(1L, periodSeconds) * 20L;
+        refreshTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refreshAll, 0L, period);
+    }
+
+    public void stopRefresher() {
+        if (refreshTask != null) {
+            refreshTask.cancel();
+            refreshTask = null;
+        }
+        snapshots.clear();
+    }
+
+    private void refreshAll() {
+        if (!isAvailable()) {
+            snapshots.clear();
+            return;
+        }
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            refresh(player);
+        }
+        snapshots.keySet().removeIf(uuid -> Bukkit.getPlayer(uuid) == null);
+    }
+
+    /**
+     * Reads the player's hours from PlayTimeTracker into the snapshot. Blocking, call it off the main thread.
+     */
+    public void refresh(Player player) {
+        if (!isAvailable() || player == null) {
+            return;
+        }
+        snapshots.put(player.getUniqueId(), new Snapshot(
+                getTotalHours(player), getDailyHours(player), getWeeklyHours(player), getMonthlyHours(player)));
+    }
+
+    /**
+     * Last refreshed hours of an online player, or null before the first refresh.
+     */
+    public Snapshot getSnapshot(UUID uuid) {
+        return snapshots.get(uuid);
+    }
+
+    /**
+     * Total hours from the snapshot, 0.0 if there is none yet. Never calls PlayTimeTracker.
+     */
+    public double getCachedTotalHours(Player player) {
+        Snapshot snapshot = snapshots.get(player.getUniqueId());
+        return snapshot != null ? snapshot.totalHours() : 0.0;
+    }
+
     /**
      * Check if PlayTimeTracker integration is available
      */
@@ -117,8 +225,7 @@ public class PlayTimeIntegration {
         }
 
         try {
-            Object result = getTotalHoursMethod.invoke(apiInstance, player);
-            return result != null ? (double) result : 0.0;
+            return totalHoursGetter.get(player);
         } catch (Exception e) {
             // Silent fail - return 0
             return 0.0;
@@ -134,8 +241,7 @@ public class PlayTimeIntegration {
         }
 
         try {
-            Object result = getDailyHoursMethod.invoke(apiInstance, player);
-            return result != null ? (double) result : 0.0;
+            return dailyHoursGetter.get(player);
         } catch (Exception e) {
             return 0.0;
         }
@@ -150,8 +256,7 @@ public class PlayTimeIntegration {
         }
 
         try {
-            Object result = getWeeklyHoursMethod.invoke(apiInstance, player);
-            return result != null ? (double) result : 0.0;
+            return weeklyHoursGetter.get(player);
         } catch (Exception e) {
             return 0.0;
         }
@@ -166,8 +271,7 @@ public class PlayTimeIntegration {
         }
 
         try {
-            Object result = getMonthlyHoursMethod.invoke(apiInstance, player);
-            return result != null ? (double) result : 0.0;
+            return monthlyHoursGetter.get(player);
         } catch (Exception e) {
             return 0.0;
         }
@@ -3,9 +3,16 @@ package org.Denis496.chatPlugin.listeners;
 import org.Denis496.chatPlugin.ChatPlugin;
 import org.Denis496.chatPlugin.integration.PlayTimeIntegration;
 import org.Denis496.chatPlugin.managers.ChatModeManager;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.session.PlayerSession.CachedValue;
+import org.Denis496.chatPlugin.utils.ChatFormat;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 import org.Denis496.chatPlugin.utils.ChatUtils;
-import org.Denis496.warns.API.WarnsAPI;
+import org.Denis496.chatPlugin.utils.MessageTokenizer;
+import org.Denis496.chatPlugin.hooks.MuteCheck;
+import io.papermc.paper.chat.ChatRenderer;
 import io.papermc.paper.event.player.AsyncChatEvent;
+import net.kyori.adventure.audience.Audience;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.TextComponent;
 import net.kyori.adventure.text.serializer.plain.PlainTextComponentSerializer;
@@ -21,6 +28,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.scheduler.BukkitTask;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -32,40 +40,28 @@ public class AsyncChatListener implements Listener {
     private final PlainTextComponentSerializer plainSerializer = PlainTextComponentSerializer.plainText();
     private final PlayTimeIntegration playTimeIntegration;
 
-    private final ExecutorService asyncExecutor = Executors.newCachedThreadPool(r -> {
-        Thread t = new Thread(r, "ChatPlugin-Async");
-        t.setDaemon(true);
-        return t;
-    });
-
-    private final ConcurrentHashMap<UUID, CachedData<String>> prefixCache = new ConcurrentHashMap<>();
+    private final BukkitTask nameRefreshTask;
 
     private static final long PREFIX_CACHE_DURATION = 30000L;
+    private static final int MAX_PREFIX_COMPONENTS = 1024;
+    private static final long NAME_REFRESH_TICKS = 1200L;
 
-    private static class CachedData<T> {
-        final T value;
-        final long expireTime;
-
-        CachedData(T value, long ttl) {
-            this.value = value;
-            this.expireTime = System.currentTimeMillis() + ttl;
-        }
-
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
-        }
-    }
+    // Deserialized prefix/suffix per distinct meta string, shared by everyone who has it
+    private final ConcurrentHashMap<String, Component> prefixComponents = new ConcurrentHashMap<>();
 
     public AsyncChatListener(ChatPlugin plugin) {
         this.plugin = plugin;
         this.luckPerms = plugin.getLuckPerms();
         this.playTimeIntegration = PlayTimeIntegration.getInstance();
 
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::cleanup, 600L, 600L);
+        // Picks up playtime changes for the name hover without touching the chat path
+        this.nameRefreshTask = Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refreshPlayerComponents,
+                NAME_REFRESH_TICKS, NAME_REFRESH_TICKS);
     }
 
     @EventHandler(priority = EventPriority.HIGHEST, ignoreCancelled = true)
     public void onAsyncChat(AsyncChatEvent event) {
+        // Stays cancelled unless the message is delivered through Paper's renderer
         event.setCancelled(true);
         event.viewers().clear();
 
@@ -76,9 +72,31 @@ public class AsyncChatListener implements Listener {
             return;
         }
 
-        WarnsAPI warnsAPI = plugin.getWarnsAPI();
-        if (warnsAPI != null && warnsAPI.isPlayerMuted(player)) {
-            org.Denis496.warns.models.Mute mute = warnsAPI.getActiveMute(player);
+        // One snapshot per message, a concurrent reload cannot change settings halfway through
+        ChatSettings settings = plugin.getSettings();
+
+        if (settings.chat().delivery() == ChatSettings.Delivery.PIPELINE) {
+            // Only decides what the pipeline may drop under load, routing happens on the pipeline
+            boolean global = message.startsWith(settings.chat().globalPrefix())
+                    || plugin.getChatModeManager().isInGlobalMode(player);
+            plugin.getChatPipeline().submitChat(player, global, () -> {
+                if (player.isOnline()) {
+                    processChat(null, player, message, settings);
+                }
+            });
+            return;
+        }
+
+        processChat(event, player, message, settings);
+    }
+
+    /**
+     * @param event the chat event while still on Paper's chat thread, null when running on the pipeline
+     */
+    private void processChat(AsyncChatEvent event, Player player, String message, ChatSettings settings) {
+        MuteCheck.Result muteCheck = MuteCheck.check(plugin, player);
+        if (muteCheck.muted()) {
+            org.Denis496.warns.models.Mute mute = muteCheck.mute();
             if (mute != null) {
                 player.sendMessage(Component.text()
                         .append(Component.text("You are muted! ", NamedTextColor.RED))
@@ -95,13 +113,20 @@ public class AsyncChatListener implements Listener {
             return;
         }
 
-        if (!plugin.getAntiSpamManager().checkMessage(player, message)) {
+        // Resolved once; everything below reads plain fields from it
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        if (session == null) {
+            // Already left, nothing to deliver for
             return;
         }
 
-        String globalPrefixStr = plugin.getConfig().getString("chat.global.prefix", "!");
+        if (!plugin.getAntiSpamManager().checkMessage(player, session, message)) {
+            return;
+        }
+
+        String globalPrefixStr = settings.chat().globalPrefix();
         boolean isGlobalPrefix = message.startsWith(globalPrefixStr);
-        boolean isInGlobalMode = plugin.getChatModeManager().isInGlobalMode(player);
+        boolean isInGlobalMode = session.getChatMode() == ChatModeManager.ChatMode.GLOBAL;
 
         boolean sendToGlobal = false;
 
@@ -118,35 +143,43 @@ public class AsyncChatListener implements Listener {
                 return;
             }
 
-            handleGlobalChat(player, message);
+            handleGlobalChat(event, player, session, message, isInGlobalMode, settings.chat());
         } else {
             if (!player.hasPermission("chat.local")) {
                 player.sendMessage(Component.text("You don't have permission to use local chat!", NamedTextColor.RED));
                 return;
             }
 
-            handleLocalChat(player, message);
+            handleLocalChat(event, player, session, message, settings.chat());
         }
     }
 
-    private void handleGlobalChat(Player player, String message) {
+    private void handleGlobalChat(AsyncChatEvent event, Player player, PlayerSession session, String message,
+                                  boolean isInGlobalMode, ChatSettings.Chat chat) {
         try {
-            String prefix = getCachedPrefix(player);
-            Component formattedMessage = buildMessage(player, message, prefix, true);
-
-            for (Player recipient : Bukkit.getOnlinePlayers()) {
-                if (!plugin.getIgnoreManager().isIgnoring(recipient, player)) {
-                    recipient.sendMessage(formattedMessage);
+            Component prefix = getCachedPrefix(player, session);
+            Component formattedMessage = buildMessage(player, session, message, prefix, chat.globalTemplate());
+
+            // Full audience minus the (usually empty) set of online players ignoring the sender
+            Set<UUID> ignorers = plugin.getIgnoreManager().getIgnorers(player);
+            Collection<? extends Player> recipients = Bukkit.getOnlinePlayers();
+            if (!ignorers.isEmpty()) {
+                List<Player> filtered = new ArrayList<>(recipients.size());
+                for (Player recipient : recipients) {
+                    if (!ignorers.contains(recipient.getUniqueId())) {
+                        filtered.add(recipient);
+                    }
                 }
+                recipients = filtered;
             }
 
-            Bukkit.getConsoleSender().sendMessage(formattedMessage);
+            deliver(event, formattedMessage, recipients, chat);
 
             if (plugin.getVelocityHandler() != null && plugin.getVelocityHandler().isEnabled()) {
                 plugin.getVelocityHandler().sendGlobalMessage(player, message);
             }
 
-            if (plugin.getChatModeManager().isInGlobalMode(player)) {
+            if (isInGlobalMode) {
                 notifyDiscordAuthForGlobalMode(player, message);
             }
         } catch (Exception e) {
@@ -154,24 +187,24 @@ public class AsyncChatListener implements Listener {
         }
     }
 
-    private void handleLocalChat(Player player, String message) {
+    private void handleLocalChat(AsyncChatEvent event, Player player, PlayerSession session, String message,
+                                 ChatSettings.Chat chat) {
         try {
-            int radius = plugin.getConfig().getInt("chat.local.radius", 50);
-            double radiusSquared = radius * radius;
-
-            String prefix = getCachedPrefix(player);
-            Component formattedMessage = buildMessage(player, message, prefix, false);
-
-            Set<Player> recipients = new HashSet<>();
-            for (Player p : Bukkit.getOnlinePlayers()) {
-                if (p.getWorld().equals(player.getWorld()) &&
-                        p.getLocation().distanceSquared(player.getLocation()) <= radiusSquared &&
-                        !plugin.getIgnoreManager().isIgnoring(p, player)) {
+            int radius = chat.localRadius();
+            Component prefix = getCachedPrefix(player, session);
+            Component formattedMessage = buildMessage(player, session, message, prefix, chat.localTemplate());
+
+            // Only players in the cells overlapping the radius are considered
+            Set<UUID> ignorers = plugin.getIgnoreManager().getIgnorers(player);
+            List<Player> recipients = new ArrayList<>();
+            for (Player p : plugin.getProximityManager().getNearbyPlayers(player, radius)) {
+                if (ignorers.isEmpty() || !ignorers.contains(p.getUniqueId())) {
                     recipients.add(p);
-                    p.sendMessage(formattedMessage);
                 }
             }
 
+            deliver(event, formattedMessage, recipients, chat);
+
             if (recipients.size() <= 1) {
                 player.sendMessage(Component.text()
                         .append(Component.text("No one heard you. ", NamedTextColor.GRAY))
@@ -182,13 +215,35 @@ public class AsyncChatListener implements Listener {
                         .append(Component.text(" to switch to global chat.", NamedTextColor.GRAY))
                         .build());
             }
-
-            Bukkit.getConsoleSender().sendMessage(formattedMessage);
         } catch (Exception e) {
             plugin.getLogger().warning("Error in local chat: " + e.getMessage());
         }
     }
 
+    /**
+     * Sends the rendered message to the recipients and the console. In renderer mode the event
+     * is un-cancelled with the recipients as its viewers, so Paper renders once and broadcasts;
+     * otherwise the event stays cancelled and the message goes through one forwarding audience.
+     */
+    private void deliver(AsyncChatEvent event, Component formattedMessage, Collection<? extends Player> recipients,
+                         ChatSettings.Chat chat) {
+        if (event != null && chat.delivery() == ChatSettings.Delivery.RENDERER) {
+            Set<Audience> viewers = event.viewers();
+            viewers.clear();
+            viewers.addAll(recipients);
+            viewers.add(Bukkit.getConsoleSender());
+            event.renderer(ChatRenderer.viewerUnaware((source, displayName, msg) -> formattedMessage));
+            event.setCancelled(false);
+            return;
+        }
+
+        // One forwarding audience instead of a sendMessage call per recipient
+        List<Audience> audiences = new ArrayList<>(recipients.size() + 1);
+        audiences.addAll(recipients);
+        audiences.add(Bukkit.getConsoleSender());
+        Audience.audience(audiences).sendMessage(formattedMessage);
+    }
+
     private void notifyDiscordAuthForGlobalMode(Player player, String message) {
         Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
@@ -200,44 +255,62 @@ public class AsyncChatListener implements Listener {
         });
     }
 
-    private Component buildMessage(Player player, String message, String prefix, boolean isGlobal) {
-        String playerName = player.getName();
-
-        TextComponent.Builder builder = Component.text();
+    // The format was compiled on load, only the slots are filled in here
+    private Component buildMessage(Player player, PlayerSession session, String message, Component prefix, ChatFormat format) {
+        Component playerComponent = getPlayerComponent(player, session);
+        Component processedMessage = processMessage(player, message);
 
-        builder.append(Component.text(isGlobal ? "G " : "L ", isGlobal ? NamedTextColor.RED : NamedTextColor.YELLOW));
-        builder.append(Component.text("| ", NamedTextColor.DARK_GRAY));
+        return format.render(session.getState(), prefix, playerComponent, processedMessage);
+    }
 
-        if (!prefix.isEmpty()) {
-            builder.append(ChatUtils.colorizeComponent(prefix + " "));
+    // Reused across messages until the shown playtime changes
+    private Component getPlayerComponent(Player player, PlayerSession session) {
+        Component component = session.getNameComponent();
+        if (component != null) {
+            return component;
         }
 
-        Component playerComponent = createSimplePlayerComponent(player);
-        builder.append(playerComponent);
+        long hoursTenths = getHoursTenths(player);
+        component = createSimplePlayerComponent(player, hoursTenths);
+        session.setNameComponent(component, hoursTenths);
+        return component;
+    }
 
-        builder.append(Component.text(" › ", NamedTextColor.DARK_GRAY));
+    private void refreshPlayerComponents() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerSession session = plugin.getSessionManager().getIfPresent(player.getUniqueId());
+            if (session == null || session.getNameComponent() == null) {
+                continue;
+            }
 
-        Component processedMessage = processMessage(player, message);
-        builder.append(processedMessage);
+            long hoursTenths = getHoursTenths(player);
+            if (hoursTenths != session.getNameHoursTenths()) {
+                session.setNameComponent(createSimplePlayerComponent(player, hoursTenths), hoursTenths);
+            }
+        }
+    }
 
-        return builder.build();
+    // Playtime rounded the way the hover shows it, -1 when it is not shown
+    private long getHoursTenths(Player player) {
+        if (!playTimeIntegration.isAvailable()) {
+            return -1L;
+        }
+        double totalHours = playTimeIntegration.getCachedTotalHours(player);
+        return totalHours > 0 ? Math.round(totalHours * 10) : -1L;
     }
 
-    private Component createSimplePlayerComponent(Player player) {
+    private Component createSimplePlayerComponent(Player player, long hoursTenths) {
         TextComponent.Builder hoverBuilder = Component.text();
 
         hoverBuilder.append(Component.text("Player Information", NamedTextColor.YELLOW));
         hoverBuilder.append(Component.newline());
 
         // Use safe integration for playtime - only show if available
-        if (playTimeIntegration.isAvailable()) {
-            double totalHours = playTimeIntegration.getTotalHours(player);
-            if (totalHours > 0) {
-                hoverBuilder.append(Component.text("Hours Played: ", NamedTextColor.GRAY));
-                hoverBuilder.append(Component.text(playTimeIntegration.formatHours(totalHours), NamedTextColor.GREEN));
-                hoverBuilder.append(Component.newline());
-                hoverBuilder.append(Component.newline());
-            }
+        if (hoursTenths >= 0) {
+            hoverBuilder.append(Component.text("Hours Played: ", NamedTextColor.GRAY));
+            hoverBuilder.append(Component.text(playTimeIntegration.formatHours(hoursTenths / 10.0), NamedTextColor.GREEN));
+            hoverBuilder.append(Component.newline());
+            hoverBuilder.append(Component.newline());
         }
 
         hoverBuilder.append(Component.text("Click to message", NamedTextColor.GRAY, TextDecoration.ITALIC));
@@ -250,34 +323,31 @@ public class AsyncChatListener implements Listener {
     }
 
     private Component processMessage(Player player, String message) {
-        if (plugin.getConfig().getBoolean("mention.enabled", true) && message.contains("@")) {
-            message = plugin.getMentionManager().processMentions(player, message, Bukkit.getOnlinePlayers());
-        }
-
-        Component messageComponent = plugin.getPlaceholderManager().processPlaceholdersAsComponent(player, message);
+        // Scanned once; mentions, placeholders and marks all work on the same tokens
+        List<MessageTokenizer.Token> tokens = MessageTokenizer.tokenize(message, plugin.getMentionManager().getPrefix());
 
-        if (plugin.getMarksHook() != null && plugin.getMarksHook().isHooked()) {
-            messageComponent = plugin.getMarksHook().processMarkPlaceholders(messageComponent);
-        }
+        tokens = plugin.getMentionManager().processMentions(player, tokens, Bukkit.getOnlinePlayers());
 
-        return messageComponent;
+        // Marks are spliced in while the component is built
+        return plugin.getPlaceholderManager().processPlaceholdersAsComponent(player, tokens);
     }
 
-    private String getCachedPrefix(Player player) {
-        UUID uuid = player.getUniqueId();
-        CachedData<String> cached = prefixCache.get(uuid);
+    // Null when the player has no prefix
+    private Component getCachedPrefix(Player player, PlayerSession session) {
+        CachedValue<Component> cached = session.getPrefix();
 
         if (cached != null && !cached.isExpired()) {
             return cached.value;
         }
 
-        return loadPrefix(player);
+        return loadPrefix(player, session);
     }
 
-    private String loadPrefix(Player player) {
+    private Component loadPrefix(Player player, PlayerSession session) {
         String prefix = "";
 
-        if (luckPerms != null && plugin.getConfig().getBoolean("chat.use-luckperms-prefix", true)) {
+        ChatSettings settings = plugin.getSettings();
+        if (luckPerms != null && settings.chat().useLuckPermsPrefix()) {
             try {
                 User user = luckPerms.getPlayerAdapter(Player.class).getUser(player);
                 if (user != null) {
@@ -291,43 +361,49 @@ public class AsyncChatListener implements Listener {
                     }
                 }
             } catch (Exception e) {
-                if (plugin.getConfig().getBoolean("debug", false)) {
+                if (settings.debug()) {
                     plugin.getLogger().warning("Failed to load prefix for " + player.getName() + ": " + e.getMessage());
                 }
             }
         }
 
-        prefixCache.put(player.getUniqueId(), new CachedData<>(prefix, PREFIX_CACHE_DURATION));
-        return prefix;
+        Component component = prefix.isEmpty() ? null : getPrefixComponent(prefix);
+        session.setPrefix(new CachedValue<>(component, PREFIX_CACHE_DURATION));
+        return component;
     }
 
-    public void clearPlayerCache(Player player) {
-        prefixCache.remove(player.getUniqueId());
-    }
+    // Players in the same group end up holding the same component instance
+    private Component getPrefixComponent(String meta) {
+        Component component = prefixComponents.get(meta);
+        if (component != null) {
+            return component;
+        }
 
-    public void clearAllCaches() {
-        prefixCache.clear();
+        // Per-player meta (e.g. custom prefixes) can grow the table, so start over past the cap
+        if (prefixComponents.size() >= MAX_PREFIX_COMPONENTS) {
+            prefixComponents.clear();
+        }
+        return prefixComponents.computeIfAbsent(meta, ChatUtils::colorizeComponent);
     }
 
-    private void cleanup() {
-        prefixCache.entrySet().removeIf(e -> e.getValue().isExpired());
-
-        Set<UUID> onlineUUIDs = new HashSet<>();
-        for (Player p : Bukkit.getOnlinePlayers()) {
-            onlineUUIDs.add(p.getUniqueId());
+    public void clearPlayerCache(Player player) {
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player.getUniqueId());
+        if (session != null) {
+            session.setPrefix(null);
         }
+    }
 
-        prefixCache.keySet().retainAll(onlineUUIDs);
+    /**
+     * Drops the shared prefix components and every session's reference to them.
+     */
+    public void clearAllCaches() {
+        prefixComponents.clear();
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            session.setPrefix(null);
+        }
     }
 
     public void shutdown() {
-        asyncExecutor.shutdown();
-        try {
-            if (!asyncExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
-                asyncExecutor.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            asyncExecutor.shutdownNow();
-        }
+        nameRefreshTask.cancel();
     }
 }
\ No newline at end of file
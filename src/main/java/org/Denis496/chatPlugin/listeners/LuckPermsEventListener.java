@@ -89,6 +89,11 @@ public class LuckPermsEventListener {
 
             // Update all online players in this group
             Bukkit.getScheduler().runTask(plugin, () -> {
+                // The group's old prefix component is no longer shared by anyone
+                if (plugin.getAsyncChatListener() != null) {
+                    plugin.getAsyncChatListener().clearAllCaches();
+                }
+
                 for (Player player : Bukkit.getOnlinePlayers()) {
                     User user = luckPerms.getPlayerAdapter(Player.class).getUser(player);
                     if (user != null && user.getPrimaryGroup().equalsIgnoreCase(groupName)) {
@@ -102,6 +107,10 @@ public class LuckPermsEventListener {
         eventBus.subscribe(plugin, TrackMutateEvent.class, event -> {
             // Refresh all online players as track changes might affect them
             Bukkit.getScheduler().runTask(plugin, () -> {
+                if (plugin.getAsyncChatListener() != null) {
+                    plugin.getAsyncChatListener().clearAllCaches();
+                }
+
                 for (Player player : Bukkit.getOnlinePlayers()) {
                     refreshPlayerCache(player);
                 }
@@ -132,7 +141,7 @@ public class LuckPermsEventListener {
         }
 
         // Log for debugging
-        if (plugin.getConfig().getBoolean("debug", false)) {
+        if (plugin.getSettings().debug()) {
             plugin.getLogger().info("Refreshed cache for " + player.getName() + " due to LuckPerms update");
         }
     }
@@ -0,0 +1,78 @@
+package org.Denis496.chatPlugin.listeners;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.integration.PlayTimeIntegration;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.UUID;
+
+/**
+ * Creates the player's session while they are connecting and destroys it after they leave,
+ * so resident data scales with online players instead of everyone who ever changed a setting.
+ */
+public class PlayerDataListener implements Listener {
+
+    private final ChatPlugin plugin;
+
+    public PlayerDataListener(ChatPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) {
+            return;
+        }
+
+        UUID uuid = event.getUniqueId();
+        plugin.getSessionManager().create(uuid).markLogin();
+        plugin.getSessionManager().load(uuid);
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        UUID uuid = player.getUniqueId();
+
+        // So the player's first messages already have playtime to show
+        plugin.getBlockingExecutor().execute(() -> PlayTimeIntegration.getInstance().refresh(player));
+
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        if (session != null && session.isLoaded()) {
+            plugin.getChatModeManager().applyMetadata(player, session.getChatMode());
+            return;
+        }
+
+        // Pre-login load can lose a race with the destruction of a previous session
+        plugin.getBlockingExecutor().execute(() -> {
+            PlayerSession loaded = plugin.getSessionManager().load(uuid);
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (player.isOnline()) {
+                    plugin.getChatModeManager().applyMetadata(player, loaded.getChatMode());
+                }
+            });
+        });
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        long quitTime = System.currentTimeMillis();
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            // The player may have reconnected in the meantime
+            PlayerSession session = plugin.getSessionManager().getIfPresent(uuid);
+            if (session == null || Bukkit.getPlayer(uuid) != null || session.getLastLogin() > quitTime) {
+                return;
+            }
+            plugin.getSessionManager().destroy(uuid);
+        });
+    }
+}
@@ -15,30 +15,9 @@ import org.bukkit.event.player.PlayerQuitEvent;
 public class PlayerJoinQuitListener implements Listener {
 
     private final ChatPlugin plugin;
-    private final boolean joinSoundsEnabled;
-    private final boolean leaveSoundsEnabled;
-    private final Sound joinSound;
-    private final Sound leaveSound;
 
     public PlayerJoinQuitListener(ChatPlugin plugin) {
         this.plugin = plugin;
-
-        // Cache config values
-        this.joinSoundsEnabled = plugin.getConfig().getBoolean("join.play-sound", true);
-        this.leaveSoundsEnabled = plugin.getConfig().getBoolean("leave.play-sound", true);
-
-        // Parse sounds once
-        this.joinSound = parseSound(plugin.getConfig().getString("join.sound", "BLOCK_NOTE_BLOCK_BELL"));
-        this.leaveSound = parseSound(plugin.getConfig().getString("leave.sound", "BLOCK_NOTE_BLOCK_BASS"));
-    }
-
-    private Sound parseSound(String soundName) {
-        try {
-            return Sound.valueOf(soundName);
-        } catch (IllegalArgumentException e) {
-            plugin.getLogger().warning("Invalid sound: " + soundName);
-            return null;
-        }
     }
 
     @EventHandler(priority = EventPriority.HIGH)
@@ -46,27 +25,30 @@ public class PlayerJoinQuitListener implements Listener {
         Player player = event.getPlayer();
 
         // Play join sound if enabled
-        if (joinSoundsEnabled && joinSound != null) {
+        Sound joinSound = plugin.getSettings().sounds().join();
+        if (joinSound != null) {
             for (Player online : Bukkit.getOnlinePlayers()) {
                 online.playSound(online.getLocation(), joinSound, 1.0f, 1.0f);
             }
         }
 
-        // Check if player is muted
+        // Check if player is muted, off the main thread
         WarnsAPI warnsAPI = plugin.getWarnsAPI();
-        if (warnsAPI != null && warnsAPI.isPlayerMuted(player)) {
-            org.Denis496.warns.models.Mute mute = warnsAPI.getActiveMute(player);
-            if (mute != null) {
-                // Schedule mute notification after 2 seconds
-                Bukkit.getScheduler().runTaskLater(plugin, () -> {
-                    player.sendMessage("");
-                    player.sendMessage(ChatUtils.colorize("&c&l⚠ YOU ARE CURRENTLY MUTED ⚠"));
-                    player.sendMessage(ChatUtils.colorize("&7Remaining time: &c" + mute.getRemainingTimeFormatted()));
-                    player.sendMessage(ChatUtils.colorize("&7Reason: &c" + mute.getReason()));
-                    player.sendMessage(ChatUtils.colorize("&7Muted by: &c" + mute.getIssuerName()));
-                    player.sendMessage("");
-                }, 40L); // 2 seconds delay
-            }
+        if (warnsAPI != null) {
+            plugin.getBlockingExecutor().execute(() -> {
+                org.Denis496.warns.models.Mute mute = warnsAPI.isPlayerMuted(player) ? warnsAPI.getActiveMute(player) : null;
+                if (mute != null) {
+                    // Schedule mute notification after 2 seconds
+                    Bukkit.getScheduler().runTaskLater(plugin, () -> {
+                        player.sendMessage("");
+                        player.sendMessage(ChatUtils.colorize("&c&l⚠ YOU ARE CURRENTLY MUTED ⚠"));
+                        player.sendMessage(ChatUtils.colorize("&7Remaining time: &c" + mute.getRemainingTimeFormatted()));
+                        player.sendMessage(ChatUtils.colorize("&7Reason: &c" + mute.getReason()));
+                        player.sendMessage(ChatUtils.colorize("&7Muted by: &c" + mute.getIssuerName()));
+                        player.sendMessage("");
+                    }, 40L); // 2 seconds delay
+                }
+            });
         }
     }
 
@@ -74,16 +56,9 @@ public class PlayerJoinQuitListener implements Listener {
     public void onPlayerQuit(PlayerQuitEvent event) {
         Player player = event.getPlayer();
 
-        // Clear caches
-        plugin.getMessageManager().clearLastMessenger(player);
-        if (plugin.getAsyncChatListener() != null) {
-            plugin.getAsyncChatListener().clearPlayerCache(player);
-        }
-        plugin.getPlaceholderManager().clearPlayerCache(player);
-        plugin.getAntiSpamManager().clearPlayerData(player);
-
         // Play leave sound if enabled
-        if (leaveSoundsEnabled && leaveSound != null) {
+        Sound leaveSound = plugin.getSettings().sounds().leave();
+        if (leaveSound != null) {
             for (Player online : Bukkit.getOnlinePlayers()) {
                 if (!online.equals(player)) {
                     online.playSound(online.getLocation(), leaveSound, 1.0f, 1.0f);
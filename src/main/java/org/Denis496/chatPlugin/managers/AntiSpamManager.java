@@ -1,113 +1,89 @@
 package org.Denis496.chatPlugin.managers;
 
 import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.session.PlayerSession.SpamState;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 import org.Denis496.chatPlugin.utils.ChatUtils;
 import org.bukkit.entity.Player;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.NamedTextColor;
 
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.UUID;
-import java.util.List;
-import java.util.ArrayList;
 
 public class AntiSpamManager {
 
     private final ChatPlugin plugin;
-    private final boolean enabled;
-    private final int messageCooldown;
-    private final int duplicateMessageTime;
-    private final int maxMessagesPerMinute;
-    private final int maxCapsPercent;
-    private final int minMessageLength;
-    private final boolean blockDuplicates;
-    private final boolean blockExcessiveCaps;
-    private final boolean blockSpamChars;
-    private final int maxRepeatingChars;
-
-    // Tracking maps
-    private final ConcurrentHashMap<UUID, Long> lastMessageTime = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, String> lastMessages = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, List<Long>> messageHistory = new ConcurrentHashMap<>();
-    private final ConcurrentHashMap<UUID, Integer> warnings = new ConcurrentHashMap<>();
 
     public AntiSpamManager(ChatPlugin plugin) {
         this.plugin = plugin;
 
-        // Load config values
-        this.enabled = plugin.getConfig().getBoolean("anti-spam.enabled", true);
-        this.messageCooldown = plugin.getConfig().getInt("anti-spam.message-cooldown", 3);
-        this.duplicateMessageTime = plugin.getConfig().getInt("anti-spam.duplicate-message-time", 30);
-        this.maxMessagesPerMinute = plugin.getConfig().getInt("anti-spam.max-messages-per-minute", 10);
-        this.maxCapsPercent = plugin.getConfig().getInt("anti-spam.max-caps-percent", 50);
-        this.minMessageLength = plugin.getConfig().getInt("anti-spam.min-message-length", 3);
-        this.blockDuplicates = plugin.getConfig().getBoolean("anti-spam.block-duplicates", true);
-        this.blockExcessiveCaps = plugin.getConfig().getBoolean("anti-spam.block-excessive-caps", true);
-        this.blockSpamChars = plugin.getConfig().getBoolean("anti-spam.block-spam-chars", true);
-        this.maxRepeatingChars = plugin.getConfig().getInt("anti-spam.max-repeating-chars", 5);
-
         // Cleanup task
         plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::cleanup, 6000L, 6000L); // Every 5 minutes
     }
 
     public boolean checkMessage(Player player, String message) {
-        if (!enabled || player.hasPermission("chat.bypass.antispam")) {
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        // Nothing to track for a player who already left
+        return session == null || checkMessage(player, session, message);
+    }
+
+    /**
+     * Same as {@link #checkMessage(Player, String)} for callers that already resolved the session.
+     */
+    public boolean checkMessage(Player player, PlayerSession session, String message) {
+        ChatSettings.AntiSpam config = plugin.getSettings().antiSpam();
+        if (!config.enabled() || player.hasPermission("chat.bypass.antispam")) {
             return true;
         }
 
-        UUID uuid = player.getUniqueId();
+        SpamState state = session.getSpamState();
         long currentTime = System.currentTimeMillis();
 
-        // Check cooldown
-        if (!checkCooldown(player, currentTime)) {
-            return false;
-        }
-
-        // Check messages per minute
-        if (!checkMessageRate(player, currentTime)) {
-            return false;
-        }
+        synchronized (state) {
+            // Check cooldown
+            if (!checkCooldown(config, player, state, currentTime)) {
+                return false;
+            }
 
-        // Check duplicate messages
-        if (blockDuplicates && !checkDuplicate(player, message)) {
-            return false;
-        }
+            // Check messages per minute
+            if (!checkMessageRate(config, player, state, currentTime)) {
+                return false;
+            }
 
-        // Check excessive caps
-        if (blockExcessiveCaps && !checkCaps(player, message)) {
-            return false;
-        }
+            // Check duplicate messages
+            if (config.blockDuplicates() && !checkDuplicate(config, player, state, message, currentTime)) {
+                return false;
+            }
 
-        // Check spam characters
-        if (blockSpamChars && !checkSpamChars(player, message)) {
-            return false;
-        }
+            // Check excessive caps
+            if (config.blockExcessiveCaps() && !checkCaps(config, player, message)) {
+                incrementWarning(config, player, state);
+                return false;
+            }
 
-        // Update tracking
-        lastMessageTime.put(uuid, currentTime);
-        lastMessages.put(uuid, message.toLowerCase());
+            // Check spam characters
+            if (config.blockSpamChars() && !checkSpamChars(config, player, message)) {
+                incrementWarning(config, player, state);
+                return false;
+            }
 
-        // Add to message history
-        messageHistory.compute(uuid, (k, v) -> {
-            if (v == null) v = new ArrayList<>();
-            v.add(currentTime);
-            return v;
-        });
+            // Update tracking
+            state.lastMessageTime = currentTime;
+            state.lastMessage = message.toLowerCase();
+            state.history.add(currentTime);
+        }
 
         return true;
     }
 
-    private boolean checkCooldown(Player player, long currentTime) {
-        UUID uuid = player.getUniqueId();
-        Long lastTime = lastMessageTime.get(uuid);
-
-        if (lastTime != null) {
-            long timeDiff = currentTime - lastTime;
-            if (timeDiff < messageCooldown * 1000L) {
-                long remaining = (messageCooldown * 1000L - timeDiff) / 1000L;
+    private boolean checkCooldown(ChatSettings.AntiSpam config, Player player, SpamState state, long currentTime) {
+        if (state.lastMessageTime > 0L) {
+            long timeDiff = currentTime - state.lastMessageTime;
+            if (timeDiff < config.messageCooldown() * 1000L) {
+                long remaining = (config.messageCooldown() * 1000L - timeDiff) / 1000L;
                 player.sendMessage(Component.text("Please wait " + remaining + " more second(s) before sending another message!", NamedTextColor.RED));
-                incrementWarning(player);
+                incrementWarning(config, player, state);
                 return false;
             }
         }
@@ -115,33 +91,24 @@ public class AntiSpamManager {
         return true;
     }
 
-    private boolean checkMessageRate(Player player, long currentTime) {
-        UUID uuid = player.getUniqueId();
-        List<Long> history = messageHistory.get(uuid);
-
-        if (history != null) {
-            // Remove old entries
-            history.removeIf(time -> currentTime - time > 60000L);
+    private boolean checkMessageRate(ChatSettings.AntiSpam config, Player player, SpamState state, long currentTime) {
+        // Remove old entries
+        state.history.removeIf(time -> currentTime - time > 60000L);
 
-            if (history.size() >= maxMessagesPerMinute) {
-                player.sendMessage(Component.text("You are sending messages too quickly! Maximum " + maxMessagesPerMinute + " messages per minute.", NamedTextColor.RED));
-                incrementWarning(player);
-                return false;
-            }
+        if (state.history.size() >= config.maxMessagesPerMinute()) {
+            player.sendMessage(Component.text("You are sending messages too quickly! Maximum " + config.maxMessagesPerMinute() + " messages per minute.", NamedTextColor.RED));
+            incrementWarning(config, player, state);
+            return false;
         }
 
         return true;
     }
 
-    private boolean checkDuplicate(Player player, String message) {
-        UUID uuid = player.getUniqueId();
-        String lastMessage = lastMessages.get(uuid);
-
-        if (lastMessage != null && lastMessage.equalsIgnoreCase(message)) {
-            Long lastTime = lastMessageTime.get(uuid);
-            if (lastTime != null && System.currentTimeMillis() - lastTime < duplicateMessageTime * 1000L) {
+    private boolean checkDuplicate(ChatSettings.AntiSpam config, Player player, SpamState state, String message, long currentTime) {
+        if (state.lastMessage != null && state.lastMessage.equalsIgnoreCase(message)) {
+            if (state.lastMessageTime > 0L && currentTime - state.lastMessageTime < config.duplicateMessageTime() * 1000L) {
                 player.sendMessage(Component.text("Please don't repeat the same message!", NamedTextColor.RED));
-                incrementWarning(player);
+                incrementWarning(config, player, state);
                 return false;
             }
         }
@@ -149,8 +116,8 @@ public class AntiSpamManager {
         return true;
     }
 
-    private boolean checkCaps(Player player, String message) {
-        if (message.length() < minMessageLength) {
+    private boolean checkCaps(ChatSettings.AntiSpam config, Player player, String message) {
+        if (message.length() < config.minMessageLength()) {
             return true;
         }
 
@@ -168,9 +135,8 @@ public class AntiSpamManager {
 
         if (letterCount > 0) {
             int capsPercent = (upperCount * 100) / letterCount;
-            if (capsPercent > maxCapsPercent) {
+            if (capsPercent > config.maxCapsPercent()) {
                 player.sendMessage(Component.text("Please don't use excessive capital letters!", NamedTextColor.RED));
-                incrementWarning(player);
                 return false;
             }
         }
@@ -178,7 +144,7 @@ public class AntiSpamManager {
         return true;
     }
 
-    private boolean checkSpamChars(Player player, String message) {
+    private boolean checkSpamChars(ChatSettings.AntiSpam config, Player player, String message) {
         // Check for repeating characters
         int repeatCount = 1;
         char lastChar = '\0';
@@ -186,9 +152,8 @@ public class AntiSpamManager {
         for (char c : message.toCharArray()) {
             if (c == lastChar && c != ' ') {
                 repeatCount++;
-                if (repeatCount > maxRepeatingChars) {
+                if (repeatCount > config.maxRepeatingChars()) {
                     player.sendMessage(Component.text("Please don't spam repeating characters!", NamedTextColor.RED));
-                    incrementWarning(player);
                     return false;
                 }
             } else {
@@ -207,64 +172,54 @@ public class AntiSpamManager {
 
         if (message.length() > 0 && specialCount > message.length() / 2) {
             player.sendMessage(Component.text("Please don't use excessive special characters!", NamedTextColor.RED));
-            incrementWarning(player);
             return false;
         }
 
         return true;
     }
 
-    private void incrementWarning(Player player) {
-        UUID uuid = player.getUniqueId();
-        int count = warnings.compute(uuid, (k, v) -> v == null ? 1 : v + 1);
+    private void incrementWarning(ChatSettings.AntiSpam config, Player player, SpamState state) {
+        int count = ++state.warnings;
 
-        int kickThreshold = plugin.getConfig().getInt("anti-spam.kick-after-warnings", 5);
+        int kickThreshold = config.kickAfterWarnings();
         if (kickThreshold > 0 && count >= kickThreshold) {
             plugin.getServer().getScheduler().runTask(plugin, () -> {
                 player.kick(Component.text("Kicked for spamming!", NamedTextColor.RED));
             });
-            warnings.remove(uuid);
-            clearPlayerData(uuid);
+            state.reset();
         }
     }
 
     private void cleanup() {
         long currentTime = System.currentTimeMillis();
 
-        // Clean old message times
-        lastMessageTime.entrySet().removeIf(entry ->
-                currentTime - entry.getValue() > TimeUnit.MINUTES.toMillis(5));
-
-        // Clean message history
-        messageHistory.values().forEach(list ->
-                list.removeIf(time -> currentTime - time > TimeUnit.MINUTES.toMillis(1)));
-
-        // Remove empty histories
-        messageHistory.entrySet().removeIf(entry -> entry.getValue().isEmpty());
-
-        // Clean old warnings
-        warnings.entrySet().removeIf(entry -> {
-            Player player = plugin.getServer().getPlayer(entry.getKey());
-            return player == null || !player.isOnline();
-        });
-    }
-
-    public void clearPlayerData(UUID uuid) {
-        lastMessageTime.remove(uuid);
-        lastMessages.remove(uuid);
-        messageHistory.remove(uuid);
-        warnings.remove(uuid);
+        // Sessions of players who left are dropped with their state, only prune history here
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            SpamState state = session.getSpamState();
+            synchronized (state) {
+                state.history.removeIf(time -> currentTime - time > TimeUnit.MINUTES.toMillis(1));
+            }
+        }
     }
 
     public void clearPlayerData(Player player) {
-        clearPlayerData(player.getUniqueId());
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        if (session == null) {
+            return;
+        }
+        SpamState state = session.getSpamState();
+        synchronized (state) {
+            state.reset();
+        }
     }
 
     public void reload() {
-        // Data is cleared on reload, config values are reloaded in constructor
-        lastMessageTime.clear();
-        lastMessages.clear();
-        messageHistory.clear();
-        warnings.clear();
+        // Data is cleared on reload, config values come from the current settings snapshot
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            SpamState state = session.getSpamState();
+            synchronized (state) {
+                state.reset();
+            }
+        }
     }
-}
\ No newline at end of file
+}
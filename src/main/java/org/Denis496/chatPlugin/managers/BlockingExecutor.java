@@ -0,0 +1,127 @@
+package org.Denis496.chatPlugin.managers;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.bukkit.Bukkit;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+/**
+ * Runs blocking integration calls (Marks SQL lookups, Teams and Warns API calls, storage
+ * writes) away from the chat and main threads. With pipeline.virtual-threads on Java 21+ every
+ * task gets its own virtual thread, otherwise tasks go to Bukkit's async scheduler. Callers that
+ * need the result use {@link #call}, which waits at most pipeline.blocking-timeout-ms.
+ */
+public class BlockingExecutor implements Executor {
+
+    private final ChatPlugin plugin;
+    // Null when running on the Bukkit scheduler
+    private final ExecutorService virtualThreads;
+    private volatile long lastTimeoutWarning;
+
+    public BlockingExecutor(ChatPlugin plugin) {
+        this.plugin = plugin;
+        this.virtualThreads = plugin.getSettings().pipeline().virtualThreads() ? createVirtualThreadExecutor() : null;
+    }
+
+    private ExecutorService createVirtualThreadExecutor() {
+        if (Runtime.version().feature() < 21) {
+            plugin.getLogger().warning("pipeline.virtual-threads needs Java 21 or newer, using the Bukkit scheduler");
+            return null;
+        }
+
+        try {
+            // Looked up at runtime so the plugin still builds against and runs on Java 17
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            plugin.getLogger().info("Running blocking integration calls on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            plugin.getLogger().warning("Failed to create virtual thread executor: " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (virtualThreads == null) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+            return;
+        }
+
+        try {
+            virtualThreads.execute(() -> {
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    plugin.getLogger().log(Level.WARNING, "Error in blocking task", t);
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // Shutting down, storage flushes synchronously on disable
+        }
+    }
+
+    /**
+     * Runs {@code call} on this executor and waits for it up to the configured timeout. Returns
+     * {@code fallback} if it took longer or failed; a late result is discarded.
+     */
+    public <T> T call(Supplier<T> call, T fallback, String description) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(() -> {
+            try {
+                future.complete(call.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+
+        long timeout = plugin.getSettings().pipeline().blockingTimeoutMs();
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A slow backend would otherwise log on every message
+            long now = System.currentTimeMillis();
+            if (now - lastTimeoutWarning > 60000L) {
+                lastTimeoutWarning = now;
+                plugin.getLogger().warning(description + " took longer than " + timeout + "ms, using the fallback");
+            }
+        } catch (ExecutionException e) {
+            plugin.getLogger().warning(description + " failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return fallback;
+    }
+
+    public boolean isVirtual() {
+        return virtualThreads != null;
+    }
+
+    /**
+     * Waits briefly for running lookups and writes. The mode only changes on restart.
+     */
+    public void shutdown() {
+        if (virtualThreads == null) {
+            return;
+        }
+
+        virtualThreads.shutdown();
+        try {
+            if (!virtualThreads.awaitTermination(5, TimeUnit.SECONDS)) {
+                virtualThreads.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            virtualThreads.shutdownNow();
+        }
+    }
+}
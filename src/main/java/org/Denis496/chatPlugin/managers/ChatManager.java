@@ -1,40 +1,38 @@
 package org.Denis496.chatPlugin.managers;
 
 import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 
 public class ChatManager {
 
     private final ChatPlugin plugin;
-    private final boolean localEnabled;
-    private final boolean globalEnabled;
-    private final int localRadius;
-    private final String globalPrefix;
 
     public ChatManager(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.localEnabled = plugin.getConfig().getBoolean("chat.local.enabled", true);
-        this.globalEnabled = plugin.getConfig().getBoolean("chat.global.enabled", true);
-        this.localRadius = plugin.getConfig().getInt("chat.local.radius", 50);
-        this.globalPrefix = plugin.getConfig().getString("chat.global.prefix", "!");
+    }
+
+    private ChatSettings.Chat settings() {
+        return plugin.getSettings().chat();
     }
 
     public boolean isGlobalPrefix(String message) {
-        return globalEnabled && message.startsWith(globalPrefix);
+        ChatSettings.Chat chat = settings();
+        return chat.globalEnabled() && message.startsWith(chat.globalPrefix());
     }
 
     public boolean isLocalEnabled() {
-        return localEnabled;
+        return settings().localEnabled();
     }
 
     public boolean isGlobalEnabled() {
-        return globalEnabled;
+        return settings().globalEnabled();
     }
 
     public int getLocalRadius() {
-        return localRadius;
+        return settings().localRadius();
     }
 
     public String getGlobalPrefix() {
-        return globalPrefix;
+        return settings().globalPrefix();
     }
-}
\ No newline at end of file
+}
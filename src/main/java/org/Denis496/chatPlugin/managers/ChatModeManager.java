@@ -1,21 +1,16 @@
 package org.Denis496.chatPlugin.managers;
 
 import org.Denis496.chatPlugin.ChatPlugin;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.storage.WriteBehindQueue;
 import org.bukkit.entity.Player;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class ChatModeManager {
 
     private final ChatPlugin plugin;
-    private final ConcurrentHashMap<UUID, ChatMode> playerModes;
-    private File dataFile;
-    private FileConfiguration dataConfig;
+    private final WriteBehindQueue<ChatMode> writer;
 
     public enum ChatMode {
         LOCAL,
@@ -24,78 +19,65 @@ public class ChatModeManager {
 
     public ChatModeManager(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.playerModes = new ConcurrentHashMap<>();
-        loadData();
+        this.writer = new WriteBehindQueue<>(plugin, "chat modes", entries -> plugin.getPlayerDataStorage().saveChatModes(entries));
     }
 
-    private void loadData() {
-        dataFile = new File(plugin.getDataFolder(), "chatmodes.yml");
-        if (!dataFile.exists()) {
-            try {
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to create chatmodes.yml: " + e.getMessage());
-            }
-        }
-
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
-
-        for (String key : dataConfig.getKeys(false)) {
-            try {
-                UUID uuid = UUID.fromString(key);
-                String modeStr = dataConfig.getString(key);
-                ChatMode mode = ChatMode.valueOf(modeStr);
-                playerModes.put(uuid, mode);
-
-                org.bukkit.entity.Player player = org.bukkit.Bukkit.getPlayer(uuid);
-                if (player != null && player.isOnline()) {
-                    player.setMetadata("chatMode", new org.bukkit.metadata.FixedMetadataValue(plugin, mode.name()));
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Invalid chat mode entry: " + key);
-            }
-        }
+    /**
+     * Fills the session's chat mode from storage. Called by {@link SessionManager#load}.
+     */
+    public void loadPlayer(PlayerSession session) throws Exception {
+        ChatMode stored = plugin.getPlayerDataStorage().loadChatMode(session.getUniqueId());
+        session.setChatMode(stored != null ? stored : ChatMode.LOCAL);
     }
 
     public void saveData() {
-        for (UUID uuid : playerModes.keySet()) {
-            dataConfig.set(uuid.toString(), playerModes.get(uuid).name());
-        }
+        writer.flush();
+    }
 
-        try {
-            dataConfig.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save chatmodes.yml: " + e.getMessage());
-        }
+    /**
+     * Writes the player's pending change, if any.
+     */
+    public void saveData(UUID uuid) {
+        writer.flush(uuid);
     }
 
+    // A player whose data has not loaded yet chats locally
     public ChatMode getPlayerMode(Player player) {
-        ChatMode mode = playerModes.getOrDefault(player.getUniqueId(), ChatMode.LOCAL);
-        player.setMetadata("chatMode", new org.bukkit.metadata.FixedMetadataValue(plugin, mode.name()));
-        return mode;
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        return session != null ? session.getChatMode() : ChatMode.LOCAL;
     }
 
-    public void setPlayerMode(Player player, ChatMode mode) {
-        playerModes.put(player.getUniqueId(), mode);
+    /**
+     * Returns false without changing anything if the player's stored settings could not be loaded.
+     */
+    public boolean setPlayerMode(Player player, ChatMode mode) {
+        // Never write over stored data that was not loaded
+        PlayerSession session = plugin.getSessionManager().getLoaded(player);
+        if (session == null) {
+            return false;
+        }
+        session.setChatMode(mode);
+        applyMetadata(player, mode);
+        writer.markDirty(player.getUniqueId(), mode);
+        return true;
+    }
+
+    /**
+     * Exposes the mode to other plugins. Set on join and on change rather than per message.
+     */
+    public void applyMetadata(Player player, ChatMode mode) {
         player.setMetadata("chatMode", new org.bukkit.metadata.FixedMetadataValue(plugin, mode.name()));
-        saveData();
     }
 
     public boolean isInGlobalMode(Player player) {
         return getPlayerMode(player) == ChatMode.GLOBAL;
     }
 
-    public void clearPlayerData(UUID uuid) {
-        playerModes.remove(uuid);
-    }
-
     public void reload() {
-        saveData();
-        playerModes.clear();
-        loadData();
+        writer.flush();
     }
 
     public void shutdown() {
-        saveData();
+        writer.shutdown();
     }
-}
\ No newline at end of file
+}
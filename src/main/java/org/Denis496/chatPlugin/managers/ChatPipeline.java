@@ -0,0 +1,224 @@
+package org.Denis496.chatPlugin.managers;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.utils.ChatSettings;
+import org.Denis496.chatPlugin.utils.ChatUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+
+/**
+ * Bounded executor every chat stage runs on (rendering, mark lookups, delivery, private messages,
+ * mention notifications), so a burst of messages queues up here instead of piling onto Paper's
+ * chat threads. When the queue is full the configured rejection policy applies.
+ * <p>
+ * Work is sharded by sender: each sender always maps to the same single-threaded lane, so one
+ * player's messages are processed and delivered in the order they were sent while different
+ * senders run in parallel.
+ */
+public class ChatPipeline {
+
+    public enum Rejection {
+        /** Drop the oldest queued global message (and tell its sender) to make room for new chat, otherwise tell the new sender. */
+        DROP_OLDEST_GLOBAL,
+        /** Tell the sender the server is busy and drop their message. */
+        NOTIFY_SENDER
+    }
+
+    public record PipelineStats(int queueDepth, int queueLimit, int activeThreads, long submitted,
+                                long rejected, long dropped, long averageWaitMicros, long maxWaitMicros) {}
+
+    private final ChatPlugin plugin;
+    private final int queueLimit;
+    private final ThreadPoolExecutor[] lanes;
+    private volatile Rejection rejection;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private final class Task implements Runnable {
+        final UUID sender;
+        final boolean global;
+        final boolean notifyOnReject;
+        final Runnable work;
+        final long enqueued = System.nanoTime();
+        // Set by the rejection handler, which runs on the submitting thread
+        boolean rejected;
+
+        Task(UUID sender, boolean global, boolean notifyOnReject, Runnable work) {
+            this.sender = sender;
+            this.global = global;
+            this.notifyOnReject = notifyOnReject;
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            long wait = System.nanoTime() - enqueued;
+            started.increment();
+            waitNanos.add(wait);
+            maxWaitNanos.accumulateAndGet(wait, Math::max);
+
+            try {
+                work.run();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.WARNING, "Error in chat pipeline", t);
+            }
+        }
+    }
+
+    public ChatPipeline(ChatPlugin plugin) {
+        this.plugin = plugin;
+
+        ChatSettings.Pipeline settings = plugin.getSettings().pipeline();
+        this.rejection = settings.rejection();
+
+        int laneCount = settings.threads();
+        // The limit is split evenly, a lane's queue only holds its own senders' messages
+        int laneLimit = Math.max(1, (settings.queueLimit() + laneCount - 1) / laneCount);
+        this.queueLimit = laneLimit * laneCount;
+        this.lanes = new ThreadPoolExecutor[laneCount];
+
+        RejectionHandler handler = new RejectionHandler();
+        for (int i = 0; i < laneCount; i++) {
+            String name = "ChatPlugin-Pipeline-" + (i + 1);
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(laneLimit), r -> {
+                Thread t = new Thread(r, name);
+                t.setDaemon(true);
+                return t;
+            }, handler);
+        }
+    }
+
+    private ThreadPoolExecutor laneFor(UUID sender) {
+        return lanes[Math.floorMod(sender.hashCode(), lanes.length)];
+    }
+
+    /**
+     * Queues a chat message from {@code sender}. Returns false if it was rejected; the sender
+     * has been told in that case.
+     */
+    public boolean submitChat(Player sender, boolean global, Runnable work) {
+        return submit(new Task(sender.getUniqueId(), global, true, work));
+    }
+
+    /**
+     * Queues follow-up work such as notifications, after everything already queued for
+     * {@code sender}. Dropped without notice when the queue is full.
+     */
+    public boolean submit(Player sender, Runnable work) {
+        return submit(new Task(sender.getUniqueId(), false, false, work));
+    }
+
+    private boolean submit(Task task) {
+        submitted.increment();
+        laneFor(task.sender).execute(task);
+        return !task.rejected;
+    }
+
+    private final class RejectionHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor pool) {
+            Task task = (Task) r;
+            if (pool.isShutdown()) {
+                task.rejected = true;
+                rejected.increment();
+                return;
+            }
+
+            // Only a chat message may evict another one, a notification never does
+            BlockingQueue<Runnable> queue = pool.getQueue();
+            if (task.notifyOnReject && rejection == Rejection.DROP_OLDEST_GLOBAL) {
+                Task evicted = dropOldestGlobal(queue);
+                if (evicted != null) {
+                    notifyBusy(evicted.sender);
+                    if (queue.offer(task)) {
+                        return;
+                    }
+                }
+            }
+
+            task.rejected = true;
+            rejected.increment();
+            if (task.notifyOnReject) {
+                notifyBusy(task.sender);
+            }
+        }
+    }
+
+    // The queue iterates oldest first. Only the full lane is searched, its senders' order is kept
+    private Task dropOldestGlobal(BlockingQueue<Runnable> queue) {
+        Iterator<Runnable> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            Runnable queued = iterator.next();
+            if (queued instanceof Task task && task.global && queue.remove(task)) {
+                dropped.increment();
+                return task;
+            }
+        }
+        return null;
+    }
+
+    private void notifyBusy(UUID uuid) {
+        Player player = Bukkit.getPlayer(uuid);
+        if (player != null) {
+            player.sendMessage(ChatUtils.colorizeComponent(plugin.getSettings().messages().serverBusy()));
+        }
+    }
+
+    public PipelineStats getStats() {
+        long count = started.sum();
+        int queueDepth = 0;
+        int activeThreads = 0;
+        for (ThreadPoolExecutor lane : lanes) {
+            queueDepth += lane.getQueue().size();
+            activeThreads += lane.getActiveCount();
+        }
+        return new PipelineStats(queueDepth, queueLimit, activeThreads, submitted.sum(),
+                rejected.sum(), dropped.sum(),
+                count > 0 ? waitNanos.sum() / count / 1000L : 0L,
+                maxWaitNanos.get() / 1000L);
+    }
+
+    /**
+     * Applies the rejection policy. The thread count and queue limit only change on restart,
+     * re-sharding live lanes could reorder a sender's queued messages.
+     */
+    public void reload() {
+        this.rejection = plugin.getSettings().pipeline().rejection();
+    }
+
+    public void shutdown() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+
+        // Shared deadline across the lanes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        try {
+            for (ThreadPoolExecutor lane : lanes) {
+                if (!lane.awaitTermination(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            for (ThreadPoolExecutor lane : lanes) {
+                lane.shutdownNow();
+            }
+        }
+    }
+}
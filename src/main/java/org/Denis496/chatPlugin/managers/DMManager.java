@@ -1,70 +1,59 @@
 package org.Denis496.chatPlugin.managers;
 
 import org.Denis496.chatPlugin.ChatPlugin;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.storage.WriteBehindQueue;
 import org.bukkit.entity.Player;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 public class DMManager {
 
     private final ChatPlugin plugin;
-    private final ConcurrentHashMap<UUID, Boolean> dmEnabled;
-    private File dataFile;
-    private FileConfiguration dataConfig;
+    private final WriteBehindQueue<Boolean> writer;
 
     public DMManager(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.dmEnabled = new ConcurrentHashMap<>();
-        loadData();
+        this.writer = new WriteBehindQueue<>(plugin, "DM settings", entries -> plugin.getPlayerDataStorage().saveDMSettings(entries));
     }
 
-    private void loadData() {
-        dataFile = new File(plugin.getDataFolder(), "dmsettings.yml");
-        if (!dataFile.exists()) {
-            try {
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to create dmsettings.yml: " + e.getMessage());
-            }
-        }
-
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
-
-        for (String key : dataConfig.getKeys(false)) {
-            try {
-                UUID uuid = UUID.fromString(key);
-                boolean enabled = dataConfig.getBoolean(key, true);
-                dmEnabled.put(uuid, enabled);
-            } catch (Exception e) {
-                plugin.getLogger().warning("Invalid DM settings entry: " + key);
-            }
-        }
+    /**
+     * Fills the session's DM setting from storage. Called by {@link SessionManager#load}.
+     */
+    public void loadPlayer(PlayerSession session) throws Exception {
+        Boolean stored = plugin.getPlayerDataStorage().loadDMSetting(session.getUniqueId());
+        session.setDMEnabled(stored != null ? stored : true);
     }
 
     public void saveData() {
-        for (UUID uuid : dmEnabled.keySet()) {
-            dataConfig.set(uuid.toString(), dmEnabled.get(uuid));
-        }
+        writer.flush();
+    }
 
-        try {
-            dataConfig.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save dmsettings.yml: " + e.getMessage());
-        }
+    /**
+     * Writes the player's pending change, if any.
+     */
+    public void saveData(UUID uuid) {
+        writer.flush(uuid);
     }
 
+    // DMs stay enabled for a player whose data has not loaded yet
     public boolean isDMEnabled(Player player) {
-        return dmEnabled.getOrDefault(player.getUniqueId(), true);
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        return session == null || session.isDMEnabled();
     }
 
-    public void setDMEnabled(Player player, boolean enabled) {
-        dmEnabled.put(player.getUniqueId(), enabled);
-        saveData();
+    /**
+     * Returns false without changing anything if the player's stored settings could not be loaded.
+     */
+    public boolean setDMEnabled(Player player, boolean enabled) {
+        // Never write over stored data that was not loaded
+        PlayerSession session = plugin.getSessionManager().getLoaded(player);
+        if (session == null) {
+            return false;
+        }
+        session.setDMEnabled(enabled);
+        writer.markDirty(player.getUniqueId(), enabled);
+        return true;
     }
 
     public boolean canSendDM(Player sender, Player recipient) {
@@ -74,17 +63,11 @@ public class DMManager {
         return isDMEnabled(recipient);
     }
 
-    public void clearPlayerData(UUID uuid) {
-        dmEnabled.remove(uuid);
-    }
-
     public void reload() {
-        saveData();
-        dmEnabled.clear();
-        loadData();
+        writer.flush();
     }
 
     public void shutdown() {
-        saveData();
+        writer.shutdown();
     }
-}
\ No newline at end of file
+}
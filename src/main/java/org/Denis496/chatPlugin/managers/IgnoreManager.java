@@ -1,118 +1,129 @@
 package org.Denis496.chatPlugin.managers;
 
 import org.Denis496.chatPlugin.ChatPlugin;
-import org.bukkit.configuration.file.FileConfiguration;
-import org.bukkit.configuration.file.YamlConfiguration;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.storage.WriteBehindQueue;
 import org.bukkit.entity.Player;
 
-import java.io.File;
-import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class IgnoreManager {
 
     private final ChatPlugin plugin;
-    private final ConcurrentHashMap<UUID, Set<UUID>> ignoreList;
-    private File dataFile;
-    private FileConfiguration dataConfig;
+    // Reverse index: target -> online players ignoring the target
+    private final ConcurrentHashMap<UUID, Set<UUID>> ignoredBy;
+    private final WriteBehindQueue<Set<UUID>> writer;
 
     public IgnoreManager(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.ignoreList = new ConcurrentHashMap<>();
-        loadData();
+        this.ignoredBy = new ConcurrentHashMap<>();
+        this.writer = new WriteBehindQueue<>(plugin, "ignore lists", entries -> plugin.getPlayerDataStorage().saveIgnoreLists(entries));
     }
 
-    private void loadData() {
-        dataFile = new File(plugin.getDataFolder(), "ignorelist.yml");
-        if (!dataFile.exists()) {
-            try {
-                dataFile.createNewFile();
-            } catch (IOException e) {
-                plugin.getLogger().severe("Failed to create ignorelist.yml: " + e.getMessage());
-            }
+    /**
+     * Fills the session's ignore list from storage and indexes it. Called by {@link SessionManager#load}.
+     */
+    public void loadPlayer(PlayerSession session) throws Exception {
+        Set<UUID> stored = plugin.getPlayerDataStorage().loadIgnoreList(session.getUniqueId());
+
+        Set<UUID> ignored = session.getIgnored();
+        ignored.clear();
+        if (stored != null) {
+            ignored.addAll(stored);
         }
 
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
-
-        for (String key : dataConfig.getKeys(false)) {
-            try {
-                UUID uuid = UUID.fromString(key);
-                List<String> ignoredList = dataConfig.getStringList(key);
-                Set<UUID> ignoredSet = Collections.newSetFromMap(new ConcurrentHashMap<>());
-
-                for (String ignoredStr : ignoredList) {
-                    try {
-                        ignoredSet.add(UUID.fromString(ignoredStr));
-                    } catch (Exception ignored) {}
-                }
-
-                if (!ignoredSet.isEmpty()) {
-                    ignoreList.put(uuid, ignoredSet);
-                }
-            } catch (Exception e) {
-                plugin.getLogger().warning("Invalid ignore list entry: " + key);
-            }
+        for (UUID target : ignored) {
+            addIgnorer(target, session.getUniqueId());
         }
     }
 
-    public void saveData() {
-        for (UUID uuid : ignoreList.keySet()) {
-            List<String> ignoredList = new ArrayList<>();
-            for (UUID ignored : ignoreList.get(uuid)) {
-                ignoredList.add(ignored.toString());
-            }
-            dataConfig.set(uuid.toString(), ignoredList);
+    /**
+     * Removes a session that is going away from the reverse index.
+     */
+    public void unloadPlayer(PlayerSession session) {
+        for (UUID target : session.getIgnored()) {
+            removeIgnorer(target, session.getUniqueId());
         }
+    }
 
-        try {
-            dataConfig.save(dataFile);
-        } catch (IOException e) {
-            plugin.getLogger().severe("Failed to save ignorelist.yml: " + e.getMessage());
-        }
+    public void saveData() {
+        writer.flush();
     }
 
+    /**
+     * Writes the player's pending change, if any.
+     */
+    public void saveData(UUID uuid) {
+        writer.flush(uuid);
+    }
+
+    // A player whose data has not loaded yet ignores nobody
     public boolean isIgnoring(Player player, Player target) {
-        Set<UUID> ignored = ignoreList.get(player.getUniqueId());
-        if (ignored == null) {
-            return false;
-        }
-        return ignored.contains(target.getUniqueId());
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        return session != null && session.getIgnored().contains(target.getUniqueId());
     }
 
-    public void addIgnore(Player player, Player target) {
-        ignoreList.computeIfAbsent(player.getUniqueId(),
-                        k -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
-                .add(target.getUniqueId());
-        saveData();
+    /**
+     * Returns false without changing anything if the player's stored settings could not be loaded.
+     */
+    public boolean addIgnore(Player player, Player target) {
+        // Never write over stored data that was not loaded
+        PlayerSession session = plugin.getSessionManager().getLoaded(player);
+        if (session == null) {
+            return false;
+        }
+        session.getIgnored().add(target.getUniqueId());
+        addIgnorer(target.getUniqueId(), player.getUniqueId());
+        writer.markDirty(player.getUniqueId(), Set.copyOf(session.getIgnored()));
+        return true;
     }
 
-    public void removeIgnore(Player player, Player target) {
-        Set<UUID> ignored = ignoreList.get(player.getUniqueId());
-        if (ignored != null) {
-            ignored.remove(target.getUniqueId());
-            if (ignored.isEmpty()) {
-                ignoreList.remove(player.getUniqueId());
-            }
-            saveData();
+    /**
+     * Returns false without changing anything if the player's stored settings could not be loaded.
+     */
+    public boolean removeIgnore(Player player, Player target) {
+        PlayerSession session = plugin.getSessionManager().getLoaded(player);
+        if (session == null) {
+            return false;
+        }
+        if (session.getIgnored().remove(target.getUniqueId())) {
+            removeIgnorer(target.getUniqueId(), player.getUniqueId());
+            writer.markDirty(player.getUniqueId(), Set.copyOf(session.getIgnored()));
         }
+        return true;
     }
 
     public Set<UUID> getIgnoredPlayers(Player player) {
-        return ignoreList.getOrDefault(player.getUniqueId(), Collections.emptySet());
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        return session != null ? session.getIgnored() : Collections.emptySet();
+    }
+
+    /**
+     * Online players who ignore the target. Broadcasts subtract this set from the full audience
+     * instead of checking every recipient's own ignore list.
+     */
+    public Set<UUID> getIgnorers(Player target) {
+        return ignoredBy.getOrDefault(target.getUniqueId(), Collections.emptySet());
+    }
+
+    private void addIgnorer(UUID target, UUID ignorer) {
+        ignoredBy.computeIfAbsent(target, k -> Collections.newSetFromMap(new ConcurrentHashMap<>()))
+                .add(ignorer);
     }
 
-    public void clearPlayerData(UUID uuid) {
-        ignoreList.remove(uuid);
+    private void removeIgnorer(UUID target, UUID ignorer) {
+        ignoredBy.computeIfPresent(target, (k, set) -> {
+            set.remove(ignorer);
+            return set.isEmpty() ? null : set;
+        });
     }
 
     public void reload() {
-        saveData();
-        ignoreList.clear();
-        loadData();
+        writer.flush();
     }
 
     public void shutdown() {
-        saveData();
+        writer.shutdown();
     }
-}
\ No newline at end of file
+}
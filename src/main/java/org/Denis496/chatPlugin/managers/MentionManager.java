@@ -1,71 +1,57 @@
 package org.Denis496.chatPlugin.managers;
 
 import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 import org.Denis496.chatPlugin.utils.ChatUtils;
+import org.Denis496.chatPlugin.utils.MessageTokenizer;
+import org.Denis496.chatPlugin.utils.MessageTokenizer.Token;
 import org.bukkit.Sound;
 import org.bukkit.entity.Player;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.Set;
 import java.util.HashSet;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CompletableFuture;
 
 public class MentionManager {
 
     private final ChatPlugin plugin;
-    private final boolean enabled;
-    private final String prefix;
-    private final String highlightColor;
-    private final Sound mentionSound;
-    private final Pattern mentionPattern;
-    private final Pattern quickCheckPattern;
 
     // Anti-spam protection
     private final ConcurrentHashMap<String, Long> recentMentions = new ConcurrentHashMap<>();
     private static final long MENTION_COOLDOWN = 5000L; // 5 seconds
 
-    // Pre-compiled player name patterns for faster matching
-    private final ConcurrentHashMap<String, Pattern> playerPatternCache = new ConcurrentHashMap<>();
-
     public MentionManager(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.enabled = plugin.getConfig().getBoolean("mention.enabled", true);
-        this.prefix = plugin.getConfig().getString("mention.prefix", "@");
-        this.highlightColor = plugin.getConfig().getString("mention.highlight-color", "&e");
-
-        String soundName = plugin.getConfig().getString("mention.sound", "BLOCK_NOTE_BLOCK_CHIME");
-        Sound tempSound = null;
-        try {
-            tempSound = Sound.valueOf(soundName);
-        } catch (IllegalArgumentException e) {
-            tempSound = Sound.BLOCK_NOTE_BLOCK_CHIME;
-        }
-        this.mentionSound = tempSound;
-
-        // Create optimized regex patterns
-        String escapedPrefix = Pattern.quote(prefix);
-        this.mentionPattern = Pattern.compile(escapedPrefix + "(\\w+)", Pattern.CASE_INSENSITIVE);
-        this.quickCheckPattern = Pattern.compile(escapedPrefix + "\\w");
 
         // Schedule cleanup of old mentions
         plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
                 this::cleanupRecentMentions, 6000L, 6000L); // Every 5 minutes
     }
 
-    public String processMentions(Player sender, String message, Collection<? extends Player> recipients) {
-        // Quick checks to avoid expensive operations
-        if (!enabled || !sender.hasPermission("chat.mention")) {
-            return message;
-        }
+    /**
+     * Prefix the tokenizer should recognise mentions by, or null when mentions are disabled.
+     */
+    public String getPrefix() {
+        ChatSettings.Mention mention = plugin.getSettings().mention();
+        return mention.enabled() ? mention.prefix() : null;
+    }
 
-        // Fast check if message might contain mentions
-        if (!message.contains(prefix) || !quickCheckPattern.matcher(message).find()) {
-            return message;
+    /**
+     * Resolves the MENTION tokens of a message. Mentions of online recipients become highlighted
+     * TEXT tokens; anything else is left untouched and renders as typed.
+     */
+    public List<Token> processMentions(Player sender, List<Token> tokens, Collection<? extends Player> recipients) {
+        ChatSettings.Mention mention = plugin.getSettings().mention();
+
+        // Quick checks to avoid expensive operations
+        if (!mention.enabled() || !MessageTokenizer.contains(tokens, MessageTokenizer.Type.MENTION)
+                || !sender.hasPermission("chat.mention")) {
+            return tokens;
         }
 
         // Build player lookup map with lowercase keys for case-insensitive matching
@@ -74,61 +60,37 @@ public class MentionManager {
             playerMap.put(p.getName().toLowerCase(), p);
         }
 
-        // Process mentions
-        return processMentionsInternal(sender, message, playerMap);
-    }
-
-    private String processMentionsInternal(Player sender, String message, Map<String, Player> playerMap) {
-        // Use a more efficient approach with a single pass
-        StringBuilder result = new StringBuilder(message.length() + 20);
+        List<Token> result = new ArrayList<>(tokens.size());
         Set<Player> mentionedPlayers = new HashSet<>();
 
-        Matcher matcher = mentionPattern.matcher(message);
-        int lastEnd = 0;
-        boolean foundAny = false;
-
-        while (matcher.find()) {
-            String username = matcher.group(1);
-            Player mentioned = playerMap.get(username.toLowerCase());
-
-            if (mentioned != null && !mentioned.equals(sender)) {
-                // Append text before match
-                result.append(message, lastEnd, matcher.start());
+        for (Token token : tokens) {
+            if (token.getType() == MessageTokenizer.Type.MENTION) {
+                Player mentioned = playerMap.get(token.getValue().toLowerCase());
+                if (mentioned != null && !mentioned.equals(sender)) {
+                    result.add(MessageTokenizer.text(mention.highlightColor() + token.getText() + "&r"));
 
-                // Append highlighted mention
-                result.append(highlightColor)
-                        .append(prefix)
-                        .append(username)
-                        .append("&r");
-
-                lastEnd = matcher.end();
-                foundAny = true;
-
-                // Track mentioned player for notification
-                mentionedPlayers.add(mentioned);
+                    // Track mentioned player for notification
+                    mentionedPlayers.add(mentioned);
+                    continue;
+                }
             }
+            result.add(token);
         }
 
-        // If no valid mentions found, return original message
-        if (!foundAny) {
-            return message;
+        // If no valid mentions found, return original tokens
+        if (mentionedPlayers.isEmpty()) {
+            return tokens;
         }
 
-        // Append remaining text
-        result.append(message, lastEnd, message.length());
-
-        // Notify mentioned players asynchronously (we're already in async context)
-        if (!mentionedPlayers.isEmpty()) {
-            // Fire and forget notification
-            CompletableFuture.runAsync(() ->
-                    notifyMentionedPlayersOptimized(sender, mentionedPlayers)
-            );
-        }
+        // On the sender's pipeline lane, so notifications follow their messages in order
+        plugin.getChatPipeline().submit(sender, () ->
+                notifyMentionedPlayersOptimized(sender, mentionedPlayers, mention.sound())
+        );
 
-        return ChatUtils.colorize(result.toString());
+        return result;
     }
 
-    private void notifyMentionedPlayersOptimized(Player sender, Set<Player> mentionedPlayers) {
+    private void notifyMentionedPlayersOptimized(Player sender, Set<Player> mentionedPlayers, Sound mentionSound) {
         String senderName = sender.getName();
         long currentTime = System.currentTimeMillis();
 
@@ -160,6 +122,5 @@ public class MentionManager {
 
     public void reload() {
         recentMentions.clear();
-        playerPatternCache.clear();
     }
 }
\ No newline at end of file
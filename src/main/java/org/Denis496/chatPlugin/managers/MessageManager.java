@@ -3,27 +3,25 @@ package org.Denis496.chatPlugin.managers;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
 import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.utils.ChatSettings;
 import org.Denis496.chatPlugin.utils.ChatUtils;
+import org.Denis496.chatPlugin.utils.MessageTokenizer;
+import org.Denis496.chatPlugin.utils.MessageTokenizer.Token;
 
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import net.kyori.adventure.text.Component;
 
 public class MessageManager {
 
     private final ChatPlugin plugin;
-    private final ConcurrentHashMap<UUID, UUID> lastMessengers;
-    private final ConcurrentHashMap<UUID, Long> lastMessageTime;
     private static final long MESSAGE_TIMEOUT = TimeUnit.MINUTES.toMillis(30);
 
+    // Reply targets live in the player sessions and are dropped with them on quit
     public MessageManager(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.lastMessengers = new ConcurrentHashMap<>();
-        this.lastMessageTime = new ConcurrentHashMap<>();
-
-        // Schedule cleanup task
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::cleanupOldEntries, 6000L, 6000L);
     }
 
     public void sendPrivateMessage(Player sender, Player recipient, String message) {
@@ -33,8 +31,27 @@ public class MessageManager {
             return;
         }
 
+        if (plugin.getSettings().chat().delivery() != ChatSettings.Delivery.PIPELINE) {
+            deliverPrivateMessage(sender, recipient, message);
+            return;
+        }
+
+        // Queued behind the sender's chat messages so they arrive in the order they were sent
+        plugin.getChatPipeline().submitChat(sender, false, () -> {
+            if (sender.isOnline() && recipient.isOnline()) {
+                deliverPrivateMessage(sender, recipient, message);
+            }
+        });
+    }
+
+    private void deliverPrivateMessage(Player sender, Player recipient, String message) {
+        PlayerSession senderSession = plugin.getSessionManager().getIfPresent(sender);
+        if (senderSession == null) {
+            return;
+        }
+
         // Check anti-spam for private messages
-        if (!plugin.getAntiSpamManager().checkMessage(sender, message)) {
+        if (!plugin.getAntiSpamManager().checkMessage(sender, senderSession, message)) {
             return;
         }
 
@@ -42,81 +59,62 @@ public class MessageManager {
         Component processedMessage = processMessageWithPlaceholders(sender, message);
 
         // Format messages
-        String outgoingFormat = plugin.getConfig().getString("messages.private.outgoing",
-                "&7[&6me &7-> &6{PLAYER}&7] &f");
+        ChatSettings.Messages settings = plugin.getSettings().messages();
+        String outgoingFormat = settings.privateOutgoing();
         Component outgoingPrefix = ChatUtils.colorizeComponent(outgoingFormat.replace("{PLAYER}", recipient.getName()));
         Component outgoingMessage = outgoingPrefix.append(processedMessage);
 
-        String incomingFormat = plugin.getConfig().getString("messages.private.incoming",
-                "&7[&6{PLAYER} &7-> &6me&7] &f");
+        String incomingFormat = settings.privateIncoming();
         Component incomingPrefix = ChatUtils.colorizeComponent(incomingFormat.replace("{PLAYER}", sender.getName()));
         Component incomingMessage = incomingPrefix.append(processedMessage);
 
+        // Update last messengers first, so a quick /r after receiving already has its target
+        long currentTime = System.currentTimeMillis();
+        senderSession.setLastMessenger(recipient.getUniqueId(), currentTime);
+        PlayerSession recipientSession = plugin.getSessionManager().getIfPresent(recipient);
+        if (recipientSession != null) {
+            recipientSession.setLastMessenger(sender.getUniqueId(), currentTime);
+        }
+
         // Send messages
         sender.sendMessage(outgoingMessage);
         recipient.sendMessage(incomingMessage);
 
-        // Update last messengers
-        long currentTime = System.currentTimeMillis();
-        lastMessengers.put(sender.getUniqueId(), recipient.getUniqueId());
-        lastMessengers.put(recipient.getUniqueId(), sender.getUniqueId());
-        lastMessageTime.put(sender.getUniqueId(), currentTime);
-        lastMessageTime.put(recipient.getUniqueId(), currentTime);
-
         // Log if configured
-        if (plugin.getConfig().getBoolean("messages.log-private", false)) {
+        if (settings.logPrivate()) {
             plugin.getLogger().info("[PM] " + sender.getName() + " -> " + recipient.getName() + ": " + message);
         }
     }
 
     private Component processMessageWithPlaceholders(Player player, String message) {
-        // Process placeholders
-        message = plugin.getPlaceholderManager().processPlaceholders(player, message);
-
-        // Convert to component
-        Component messageComponent = ChatUtils.colorizeComponent(message);
-
-        // Process marks if available (unified processing)
-        if (plugin.getMarksHook() != null && plugin.getMarksHook().isHooked()) {
-            messageComponent = plugin.getMarksHook().processMarkPlaceholders(messageComponent);
-        }
-
-        return messageComponent;
+        // Placeholders and marks resolved in one pass over the tokens
+        List<Token> tokens = MessageTokenizer.tokenize(message, null);
+        return plugin.getPlaceholderManager().processPlaceholdersAsText(player, tokens);
     }
 
     public Player getLastMessenger(Player player) {
-        UUID playerUUID = player.getUniqueId();
-        Long lastTime = lastMessageTime.get(playerUUID);
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        UUID lastUUID = session != null ? session.getLastMessenger() : null;
+        if (lastUUID == null) {
+            return null;
+        }
 
-        if (lastTime != null && (System.currentTimeMillis() - lastTime) > MESSAGE_TIMEOUT) {
-            lastMessengers.remove(playerUUID);
-            lastMessageTime.remove(playerUUID);
+        if ((System.currentTimeMillis() - session.getLastMessengerTime()) > MESSAGE_TIMEOUT) {
+            session.setLastMessenger(null, 0L);
             return null;
         }
 
-        UUID lastUUID = lastMessengers.get(playerUUID);
-        return lastUUID != null ? Bukkit.getPlayer(lastUUID) : null;
+        return Bukkit.getPlayer(lastUUID);
     }
 
     public void clearLastMessenger(Player player) {
-        UUID playerUUID = player.getUniqueId();
-        lastMessengers.remove(playerUUID);
-        lastMessageTime.remove(playerUUID);
-    }
-
-    private void cleanupOldEntries() {
-        long currentTime = System.currentTimeMillis();
-        lastMessageTime.entrySet().removeIf(entry -> {
-            if ((currentTime - entry.getValue()) > MESSAGE_TIMEOUT) {
-                lastMessengers.remove(entry.getKey());
-                return true;
-            }
-            return false;
-        });
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        if (session != null) {
+            session.setLastMessenger(null, 0L);
+        }
     }
 
     public void shutdown() {
-        lastMessengers.clear();
-        lastMessageTime.clear();
+        // Nothing to release, state is held by the sessions
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,173 @@
+package org.Denis496.chatPlugin.managers;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.session.PlayerState;
+import org.Denis496.chatPlugin.session.PlayerState.HeldItem;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+import org.bukkit.entity.HumanEntity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryDragEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.player.PlayerSwapHandItemsEvent;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.ItemMeta;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Captures a {@link PlayerState} for every online player once per tick on the main thread and
+ * publishes it in their session, so :loc:, :item: and the format's {WORLD}/{X}/{Y}/{Z} never touch
+ * Bukkit objects from the async chat thread. A player who did not move or change their held item
+ * keeps the same instance.
+ */
+public class PlayerStateManager implements Listener {
+
+    // Meta edits without an inventory event (commands, durability loss, other plugins) show up within this
+    private static final int META_REFRESH_TICKS = 100;
+
+    private final ChatPlugin plugin;
+    // Players whose held item meta may have changed in place (anvil, enchanting, inventory edits)
+    private final Set<UUID> metaChanged = ConcurrentHashMap.newKeySet();
+    // Main thread only, reused so a capture does not allocate a Location per player
+    private final Location location = new Location(null, 0, 0, 0);
+    private long tick;
+
+    public PlayerStateManager(ChatPlugin plugin) {
+        this.plugin = plugin;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            capture(player);
+        }
+
+        Bukkit.getScheduler().runTaskTimer(plugin, this::captureAll, 1L, 1L);
+    }
+
+    private void captureAll() {
+        tick++;
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            boolean changed = metaChanged.remove(uuid);
+            // Staggered by player so the periodic re-reads spread over the interval
+            boolean periodic = Math.floorMod(tick + uuid.hashCode(), META_REFRESH_TICKS) == 0;
+            capture(player, changed || periodic);
+        }
+    }
+
+    // The change is applied after these events, the next capture picks it up
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryClick(InventoryClickEvent event) {
+        markMetaChanged(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onInventoryDrag(InventoryDragEvent event) {
+        markMetaChanged(event.getWhoClicked());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onSwapHands(PlayerSwapHandItemsEvent event) {
+        markMetaChanged(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onQuit(PlayerQuitEvent event) {
+        metaChanged.remove(event.getPlayer().getUniqueId());
+    }
+
+    private void markMetaChanged(HumanEntity entity) {
+        if (entity instanceof Player) {
+            metaChanged.add(entity.getUniqueId());
+        }
+    }
+
+    /**
+     * Main thread only.
+     */
+    public void capture(Player player) {
+        capture(player, true);
+    }
+
+    private void capture(Player player, boolean refreshMeta) {
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        if (session == null) {
+            return;
+        }
+        PlayerState previous = session.getState();
+
+        player.getLocation(location);
+        ItemStack item = player.getInventory().getItemInMainHand();
+        HeldItem held = captureItem(player, item, previous != null ? previous.getHeldItem() : null, refreshMeta);
+
+        String worldName = location.getWorld() != null ? location.getWorld().getName() : "";
+        int x = location.getBlockX();
+        int y = location.getBlockY();
+        int z = location.getBlockZ();
+        if (previous != null && previous.getHeldItem() == held && previous.getBlockX() == x
+                && previous.getBlockY() == y && previous.getBlockZ() == z
+                && previous.getWorldName().equals(worldName)) {
+            return;
+        }
+
+        session.setState(new PlayerState(worldName, x, y, z, held));
+    }
+
+    private HeldItem captureItem(Player player, ItemStack item, HeldItem previous, boolean refreshMeta) {
+        if (item.getType() == Material.AIR) {
+            return HeldItem.EMPTY;
+        }
+
+        // Cheap to read every tick, unlike getItemMeta() which copies the meta. In-place meta
+        // edits that keep the fingerprint are caught by the inventory events above or by the
+        // periodic refresh
+        long fingerprint = ((long) item.getType().ordinal() << 32)
+                | ((long) player.getInventory().getHeldItemSlot() << 17)
+                | ((item.hasItemMeta() ? 1L : 0L) << 16)
+                | item.getAmount();
+        if (previous != null && previous.getFingerprint() == fingerprint && (!refreshMeta || !item.hasItemMeta())) {
+            return previous;
+        }
+
+        ItemMeta meta = item.hasItemMeta() ? item.getItemMeta() : null;
+        String displayName = meta != null && meta.hasDisplayName() ? meta.getDisplayName() : null;
+        Map<Enchantment, Integer> enchants = meta != null && meta.hasEnchants()
+                ? Map.copyOf(meta.getEnchants())
+                : Map.of();
+
+        if (previous != null && previous.getFingerprint() == fingerprint
+                && Objects.equals(previous.getDisplayName(), displayName)
+                && previous.getEnchants().equals(enchants)) {
+            return previous;
+        }
+        return new HeldItem(item.getType(), item.getAmount(), displayName, enchants, fingerprint);
+    }
+
+    /**
+     * The player's last captured state. Null for a player without a session or who has not been
+     * captured yet; the latter is captured now if called from the main thread.
+     */
+    public PlayerState getState(Player player) {
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player);
+        if (session == null) {
+            return null;
+        }
+
+        PlayerState state = session.getState();
+        if (state == null && Bukkit.isPrimaryThread()) {
+            capture(player);
+            state = session.getState();
+        }
+        return state;
+    }
+}
@@ -0,0 +1,179 @@
+package org.Denis496.chatPlugin.managers;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chunk-bucketed spatial index of online players, used to resolve the local chat audience
+ * without walking every online player. Positions are written from the main thread by
+ * movement events and read from the async chat thread.
+ */
+public class ProximityManager {
+
+    private static final int CELL_SHIFT = 4; // 16 blocks per cell, same as a chunk
+
+    private final ChatPlugin plugin;
+
+    // world UID -> cell key -> players in that cell
+    private final ConcurrentHashMap<UUID, Map<Long, Set<TrackedPlayer>>> worlds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, TrackedPlayer> tracked = new ConcurrentHashMap<>();
+
+    private static final class TrackedPlayer {
+        final Player player;
+        volatile UUID worldId;
+        volatile long cellKey;
+        volatile double x;
+        volatile double y;
+        volatile double z;
+
+        TrackedPlayer(Player player) {
+            this.player = player;
+        }
+    }
+
+    public ProximityManager(ChatPlugin plugin) {
+        this.plugin = plugin;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+
+        // Resync every second to catch movement that fires no PlayerMoveEvent (vehicles, pistons)
+        Bukkit.getScheduler().runTaskTimer(plugin, this::resync, 20L, 20L);
+    }
+
+    public void track(Player player) {
+        update(player, player.getLocation());
+    }
+
+    public void update(Player player, Location location) {
+        World world = location.getWorld();
+        if (world == null) {
+            return;
+        }
+
+        TrackedPlayer entry = tracked.computeIfAbsent(player.getUniqueId(), k -> new TrackedPlayer(player));
+        UUID worldId = world.getUID();
+        long cellKey = cellKey(location.getBlockX() >> CELL_SHIFT, location.getBlockZ() >> CELL_SHIFT);
+
+        entry.x = location.getX();
+        entry.y = location.getY();
+        entry.z = location.getZ();
+
+        if (worldId.equals(entry.worldId) && cellKey == entry.cellKey) {
+            return;
+        }
+
+        removeFromCell(entry);
+        entry.worldId = worldId;
+        entry.cellKey = cellKey;
+        worlds.computeIfAbsent(worldId, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(cellKey, k -> ConcurrentHashMap.newKeySet())
+                .add(entry);
+    }
+
+    public void untrack(UUID uuid) {
+        TrackedPlayer entry = tracked.remove(uuid);
+        if (entry != null) {
+            removeFromCell(entry);
+        }
+    }
+
+    /**
+     * Returns every tracked player within {@code radius} blocks of {@code center} in the same world,
+     * including {@code center} itself. Only the cells overlapping the radius are visited.
+     */
+    public List<Player> getNearbyPlayers(Player center, double radius) {
+        TrackedPlayer origin = tracked.get(center.getUniqueId());
+        if (origin == null || origin.worldId == null) {
+            // Not tracked yet; the location can only be read safely on the main thread
+            if (!Bukkit.isPrimaryThread()) {
+                List<Player> self = new ArrayList<>();
+                self.add(center);
+                return self;
+            }
+            track(center);
+            origin = tracked.get(center.getUniqueId());
+            if (origin == null || origin.worldId == null) {
+                return new ArrayList<>();
+            }
+        }
+
+        Map<Long, Set<TrackedPlayer>> cells = worlds.get(origin.worldId);
+        List<Player> result = new ArrayList<>();
+        if (cells == null) {
+            return result;
+        }
+
+        double ox = origin.x;
+        double oy = origin.y;
+        double oz = origin.z;
+        double radiusSquared = radius * radius;
+
+        int minCellX = ((int) Math.floor(ox - radius)) >> CELL_SHIFT;
+        int maxCellX = ((int) Math.floor(ox + radius)) >> CELL_SHIFT;
+        int minCellZ = ((int) Math.floor(oz - radius)) >> CELL_SHIFT;
+        int maxCellZ = ((int) Math.floor(oz + radius)) >> CELL_SHIFT;
+
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            for (int cz = minCellZ; cz <= maxCellZ; cz++) {
+                Set<TrackedPlayer> cell = cells.get(cellKey(cx, cz));
+                if (cell == null) {
+                    continue;
+                }
+
+                for (TrackedPlayer entry : cell) {
+                    double dx = entry.x - ox;
+                    double dy = entry.y - oy;
+                    double dz = entry.z - oz;
+                    if (dx * dx + dy * dy + dz * dz <= radiusSquared) {
+                        result.add(entry.player);
+                    }
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private void removeFromCell(TrackedPlayer entry) {
+        if (entry.worldId == null) {
+            return;
+        }
+
+        Map<Long, Set<TrackedPlayer>> cells = worlds.get(entry.worldId);
+        if (cells == null) {
+            return;
+        }
+
+        cells.computeIfPresent(entry.cellKey, (k, set) -> {
+            set.remove(entry);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void resync() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+    }
+
+    private static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+
+    public void shutdown() {
+        tracked.clear();
+        worlds.clear();
+    }
+}
@@ -0,0 +1,162 @@
+package org.Denis496.chatPlugin.managers;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of {@link PlayerSession}s. The chat pipeline resolves the sender's session once
+ * and reads plain fields from it afterwards.
+ */
+public class SessionManager {
+
+    private static final long ORPHAN_TIMEOUT = 60000L;
+
+    private final ChatPlugin plugin;
+    private final ConcurrentHashMap<UUID, PlayerSession> sessions = new ConcurrentHashMap<>();
+
+    public SessionManager(ChatPlugin plugin) {
+        this.plugin = plugin;
+
+        // Logins refused after pre-login never fire a quit event
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::cleanupOrphans, 1200L, 1200L);
+    }
+
+    /**
+     * The player's session, or null if they have none (not connected yet, or already destroyed).
+     * Read paths use this and fall back to the defaults, so they never recreate a session.
+     * A session that has not been loaded yet carries the defaults.
+     */
+    public PlayerSession getIfPresent(Player player) {
+        return sessions.get(player.getUniqueId());
+    }
+
+    public PlayerSession getIfPresent(UUID uuid) {
+        return sessions.get(uuid);
+    }
+
+    /**
+     * Registers the session of a connecting player, or returns the one still waiting to be destroyed.
+     */
+    public PlayerSession create(UUID uuid) {
+        return sessions.computeIfAbsent(uuid, PlayerSession::new);
+    }
+
+    public Collection<PlayerSession> getSessions() {
+        return sessions.values();
+    }
+
+    public boolean isLoaded(UUID uuid) {
+        PlayerSession session = sessions.get(uuid);
+        return session != null && session.isLoaded();
+    }
+
+    /**
+     * The player's session if its stored settings are loaded, otherwise null. Never blocks: an
+     * unloaded session is retried on the blocking executor, so a later change can succeed.
+     */
+    public PlayerSession getLoaded(Player player) {
+        PlayerSession session = sessions.get(player.getUniqueId());
+        if (session == null) {
+            return null;
+        }
+        if (!session.isLoaded()) {
+            UUID uuid = player.getUniqueId();
+            plugin.getBlockingExecutor().execute(() -> {
+                // Skip players who left while this was queued
+                if (sessions.containsKey(uuid)) {
+                    load(uuid);
+                }
+            });
+            return null;
+        }
+        return session;
+    }
+
+    /**
+     * Fills the session's persisted settings from storage. Blocking, so call it off the
+     * main thread (normally from AsyncPlayerPreLoginEvent).
+     * <p>
+     * If storage fails the session stays unloaded with the defaults, and changes to the player's
+     * settings are refused until a later call loads it.
+     */
+    public PlayerSession load(UUID uuid) {
+        PlayerSession session = create(uuid);
+        session.getLoadLock().lock();
+        try {
+            if (!session.isLoaded()) {
+                try {
+                    plugin.getChatModeManager().loadPlayer(session);
+                    plugin.getDMManager().loadPlayer(session);
+                    plugin.getIgnoreManager().loadPlayer(session);
+                    session.setLoaded(true);
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Failed to load chat settings of " + uuid + ", changes are blocked until it loads: "
+                            + e.getMessage());
+                }
+            }
+        } finally {
+            session.getLoadLock().unlock();
+        }
+        return session;
+    }
+
+    public void loadOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            load(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Re-reads persisted settings for everyone online, after pending writes were flushed.
+     */
+    public void reloadOnlinePlayers() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            PlayerSession session = create(player.getUniqueId());
+            session.getLoadLock().lock();
+            try {
+                plugin.getIgnoreManager().unloadPlayer(session);
+                session.setLoaded(false);
+            } finally {
+                session.getLoadLock().unlock();
+            }
+            session.clearRenderCaches();
+            load(player.getUniqueId());
+        }
+    }
+
+    /**
+     * Writes the player's pending changes and drops the session. A failed write stays queued.
+     */
+    public void destroy(UUID uuid) {
+        PlayerSession session = sessions.get(uuid);
+        if (session == null) {
+            return;
+        }
+
+        plugin.getChatModeManager().saveData(uuid);
+        plugin.getDMManager().saveData(uuid);
+        plugin.getIgnoreManager().saveData(uuid);
+        plugin.getIgnoreManager().unloadPlayer(session);
+        sessions.remove(uuid, session);
+    }
+
+    private void cleanupOrphans() {
+        long currentTime = System.currentTimeMillis();
+        for (PlayerSession session : sessions.values()) {
+            if (currentTime - session.getLastLogin() > ORPHAN_TIMEOUT
+                    && Bukkit.getPlayer(session.getUniqueId()) == null) {
+                destroy(session.getUniqueId());
+            }
+        }
+    }
+
+    public void shutdown() {
+        sessions.clear();
+    }
+}
@@ -19,8 +19,8 @@ public class VelocityHandler implements PluginMessageListener {
 
     public VelocityHandler(ChatPlugin plugin) {
         this.plugin = plugin;
-        this.channel = plugin.getConfig().getString("proxy.velocity.channel", "GLOBAL_CHAT");
-        this.enabled = plugin.getConfig().getBoolean("proxy.velocity.enabled", false);
+        this.channel = plugin.getSettings().proxy().velocityChannel();
+        this.enabled = plugin.getSettings().proxy().velocityEnabled();
 
         if (enabled) {
             register();
@@ -80,7 +80,7 @@ public class VelocityHandler implements PluginMessageListener {
         out.writeUTF(getServerName());
         out.writeUTF(sender.getName());
         out.writeUTF(message);
-        out.writeUTF(plugin.getConfig().getString("chat.global.format"));
+        out.writeUTF(plugin.getSettings().chat().globalFormat());
 
         // Send to all players (Velocity will handle the distribution)
         Collection<? extends Player> players = Bukkit.getOnlinePlayers();
@@ -92,7 +92,7 @@ public class VelocityHandler implements PluginMessageListener {
 
     private String getServerName() {
         // Try to get server name from various sources
-        String serverName = plugin.getConfig().getString("server-name");
+        String serverName = plugin.getSettings().serverName();
         if (serverName == null || serverName.isEmpty()) {
             serverName = Bukkit.getServer().getName();
         }
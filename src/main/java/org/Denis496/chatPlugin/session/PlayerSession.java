@@ -0,0 +1,210 @@
+package org.Denis496.chatPlugin.session;
+
+import net.kyori.adventure.text.Component;
+import org.Denis496.chatPlugin.managers.ChatModeManager.ChatMode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * All per-player state the chat pipeline needs, resolved once per message instead of
+ * one map lookup per manager. Created when the player connects and destroyed after quit.
+ */
+public class PlayerSession {
+
+    private final UUID uuid;
+    private volatile long lastLogin;
+    private volatile boolean loaded;
+    // Held while storage is read, a lock so the I/O doesn't pin a virtual thread
+    private final ReentrantLock loadLock = new ReentrantLock();
+
+    // Persisted settings, owned by ChatModeManager / DMManager / IgnoreManager
+    private volatile ChatMode chatMode = ChatMode.LOCAL;
+    private volatile boolean dmEnabled = true;
+    private final Set<UUID> ignored = ConcurrentHashMap.newKeySet();
+
+    // Render caches
+    private volatile CachedValue<Component> prefix;
+    private volatile Component nameComponent;
+    private volatile long nameHoursTenths = -1L;
+    // Indexed by the placeholder's slot in PlaceholderManager
+    private volatile CachedValue<?>[] placeholderSlots = new CachedValue<?>[0];
+
+    private final SpamState spamState = new SpamState();
+
+    // Captured on the main thread every tick
+    private volatile PlayerState state;
+
+    // Private messaging
+    private volatile UUID lastMessenger;
+    private volatile long lastMessengerTime;
+
+    public static final class CachedValue<T> {
+        public final T value;
+        public final long expireTime;
+
+        public CachedValue(T value, long duration) {
+            this.value = value;
+            this.expireTime = System.currentTimeMillis() + duration;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() > expireTime;
+        }
+    }
+
+    /**
+     * Anti-spam tracking. Callers synchronize on the instance.
+     */
+    public static final class SpamState {
+        public long lastMessageTime;
+        public String lastMessage;
+        public final List<Long> history = new ArrayList<>();
+        public int warnings;
+
+        public void reset() {
+            lastMessageTime = 0L;
+            lastMessage = null;
+            history.clear();
+            warnings = 0;
+        }
+    }
+
+    public PlayerSession(UUID uuid) {
+        this.uuid = uuid;
+        this.lastLogin = System.currentTimeMillis();
+    }
+
+    public UUID getUniqueId() {
+        return uuid;
+    }
+
+    public long getLastLogin() {
+        return lastLogin;
+    }
+
+    // A reconnect reuses the session that is still waiting to be destroyed
+    public void markLogin() {
+        this.lastLogin = System.currentTimeMillis();
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public void setLoaded(boolean loaded) {
+        this.loaded = loaded;
+    }
+
+    public ReentrantLock getLoadLock() {
+        return loadLock;
+    }
+
+    public ChatMode getChatMode() {
+        return chatMode;
+    }
+
+    public void setChatMode(ChatMode chatMode) {
+        this.chatMode = chatMode;
+    }
+
+    public boolean isDMEnabled() {
+        return dmEnabled;
+    }
+
+    public void setDMEnabled(boolean dmEnabled) {
+        this.dmEnabled = dmEnabled;
+    }
+
+    public Set<UUID> getIgnored() {
+        return ignored;
+    }
+
+    public CachedValue<Component> getPrefix() {
+        return prefix;
+    }
+
+    public void setPrefix(CachedValue<Component> prefix) {
+        this.prefix = prefix;
+    }
+
+    public Component getNameComponent() {
+        return nameComponent;
+    }
+
+    /**
+     * Hours played shown in the name's hover, in tenths, or -1 if none was shown.
+     */
+    public long getNameHoursTenths() {
+        return nameHoursTenths;
+    }
+
+    public void setNameComponent(Component nameComponent, long hoursTenths) {
+        this.nameHoursTenths = hoursTenths;
+        this.nameComponent = nameComponent;
+    }
+
+    public CachedValue<?> getPlaceholderSlot(int slot) {
+        CachedValue<?>[] slots = placeholderSlots;
+        return slot < slots.length ? slots[slot] : null;
+    }
+
+    // A write racing with a clear can land in the dropped array, which only costs a cache miss
+    public synchronized void setPlaceholderSlot(int slot, CachedValue<?> value) {
+        CachedValue<?>[] slots = placeholderSlots;
+        if (slot >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slot + 1, slots.length * 2));
+            placeholderSlots = slots;
+        }
+        slots[slot] = value;
+    }
+
+    public synchronized void removeExpiredPlaceholders() {
+        CachedValue<?>[] slots = placeholderSlots;
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i] != null && slots[i].isExpired()) {
+                slots[i] = null;
+            }
+        }
+    }
+
+    public void clearPlaceholderCache() {
+        placeholderSlots = new CachedValue<?>[0];
+    }
+
+    public PlayerState getState() {
+        return state;
+    }
+
+    public void setState(PlayerState state) {
+        this.state = state;
+    }
+
+    public SpamState getSpamState() {
+        return spamState;
+    }
+
+    public UUID getLastMessenger() {
+        return lastMessenger;
+    }
+
+    public long getLastMessengerTime() {
+        return lastMessengerTime;
+    }
+
+    public void setLastMessenger(UUID lastMessenger, long time) {
+        this.lastMessenger = lastMessenger;
+        this.lastMessengerTime = time;
+    }
+
+    public void clearRenderCaches() {
+        prefix = null;
+        nameComponent = null;
+        clearPlaceholderCache();
+    }
+}
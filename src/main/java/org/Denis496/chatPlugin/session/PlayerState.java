@@ -0,0 +1,91 @@
+package org.Denis496.chatPlugin.session;
+
+import org.bukkit.Material;
+import org.bukkit.enchantments.Enchantment;
+
+import java.util.Map;
+
+/**
+ * Immutable copy of the world state the async chat pipeline needs, captured on the main
+ * thread every tick by {@link org.Denis496.chatPlugin.managers.PlayerStateManager}.
+ */
+public final class PlayerState {
+
+    private final String worldName;
+    private final int blockX;
+    private final int blockY;
+    private final int blockZ;
+    private final HeldItem heldItem;
+
+    /**
+     * The item in the main hand. Its meta is only copied when the fingerprint changes.
+     */
+    public static final class HeldItem {
+        public static final HeldItem EMPTY = new HeldItem(Material.AIR, 0, null, Map.of(), 0L);
+
+        private final Material type;
+        private final int amount;
+        private final String displayName;
+        private final Map<Enchantment, Integer> enchants;
+        private final long fingerprint;
+
+        public HeldItem(Material type, int amount, String displayName, Map<Enchantment, Integer> enchants, long fingerprint) {
+            this.type = type;
+            this.amount = amount;
+            this.displayName = displayName;
+            this.enchants = enchants;
+            this.fingerprint = fingerprint;
+        }
+
+        public Material getType() {
+            return type;
+        }
+
+        public int getAmount() {
+            return amount;
+        }
+
+        /**
+         * Custom name from the item meta, or null.
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public Map<Enchantment, Integer> getEnchants() {
+            return enchants;
+        }
+
+        public long getFingerprint() {
+            return fingerprint;
+        }
+    }
+
+    public PlayerState(String worldName, int blockX, int blockY, int blockZ, HeldItem heldItem) {
+        this.worldName = worldName;
+        this.blockX = blockX;
+        this.blockY = blockY;
+        this.blockZ = blockZ;
+        this.heldItem = heldItem;
+    }
+
+    public String getWorldName() {
+        return worldName;
+    }
+
+    public int getBlockX() {
+        return blockX;
+    }
+
+    public int getBlockY() {
+        return blockY;
+    }
+
+    public int getBlockZ() {
+        return blockZ;
+    }
+
+    public HeldItem getHeldItem() {
+        return heldItem;
+    }
+}
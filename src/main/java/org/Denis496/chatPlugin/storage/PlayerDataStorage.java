@@ -0,0 +1,43 @@
+package org.Denis496.chatPlugin.storage;
+
+import org.Denis496.chatPlugin.managers.ChatModeManager.ChatMode;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Backend for per-player settings (ignore lists, DM toggles, chat modes).
+ * Saves throw so the write-behind queue can retry them.
+ */
+public interface PlayerDataStorage {
+
+    void init() throws Exception;
+
+    /**
+     * Per-player loads used when a player connects. Each returns null if nothing is stored and
+     * throws if the read failed, so a failure is never mistaken for an empty entry.
+     */
+    Set<UUID> loadIgnoreList(UUID player) throws Exception;
+
+    Boolean loadDMSetting(UUID player) throws Exception;
+
+    ChatMode loadChatMode(UUID player) throws Exception;
+
+    /**
+     * Replaces the ignore list of every player in the map. An empty set deletes the player's entry.
+     */
+    void saveIgnoreLists(Map<UUID, Set<UUID>> entries) throws Exception;
+
+    /**
+     * Writes the DM flag of every player in the map.
+     */
+    void saveDMSettings(Map<UUID, Boolean> entries) throws Exception;
+
+    /**
+     * Writes the chat mode of every player in the map.
+     */
+    void saveChatModes(Map<UUID, ChatMode> entries) throws Exception;
+
+    void close();
+}
@@ -0,0 +1,221 @@
+package org.Denis496.chatPlugin.storage;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.managers.ChatModeManager.ChatMode;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Embedded SQLite backend pooled through HikariCP. The SQLite driver ships with Paper,
+ * so no extra dependency is needed.
+ */
+public class SqlPlayerDataStorage implements PlayerDataStorage {
+
+    private static final String CREATE_IGNORES =
+            "CREATE TABLE IF NOT EXISTS chat_ignores (" +
+                    "player_uuid CHAR(36) NOT NULL, " +
+                    "ignored_uuid CHAR(36) NOT NULL, " +
+                    "PRIMARY KEY (player_uuid, ignored_uuid))";
+    private static final String CREATE_IGNORES_INDEX =
+            "CREATE INDEX IF NOT EXISTS idx_chat_ignores_ignored ON chat_ignores (ignored_uuid)";
+    private static final String CREATE_DM_SETTINGS =
+            "CREATE TABLE IF NOT EXISTS chat_dm_settings (" +
+                    "player_uuid CHAR(36) NOT NULL PRIMARY KEY, " +
+                    "enabled BOOLEAN NOT NULL)";
+    private static final String CREATE_CHAT_MODES =
+            "CREATE TABLE IF NOT EXISTS chat_modes (" +
+                    "player_uuid CHAR(36) NOT NULL PRIMARY KEY, " +
+                    "mode VARCHAR(16) NOT NULL)";
+
+    private final ChatPlugin plugin;
+    private HikariDataSource dataSource;
+
+    public SqlPlayerDataStorage(ChatPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void init() throws SQLException {
+        File dbFile = new File(plugin.getDataFolder(),
+                plugin.getConfig().getString("storage.sqlite.file", "playerdata.db"));
+        dbFile.getParentFile().mkdirs();
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("ChatPlugin-SQLite");
+        config.setDriverClassName("org.sqlite.JDBC");
+        config.setJdbcUrl("jdbc:sqlite:" + dbFile.getAbsolutePath());
+        config.setMaximumPoolSize(Math.max(1, plugin.getConfig().getInt("storage.sqlite.pool-size", 4)));
+        config.addDataSourceProperty("journal_mode", "WAL");
+        config.addDataSourceProperty("busy_timeout", "5000");
+        dataSource = new HikariDataSource(config);
+
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(CREATE_IGNORES);
+            statement.executeUpdate(CREATE_IGNORES_INDEX);
+            statement.executeUpdate(CREATE_DM_SETTINGS);
+            statement.executeUpdate(CREATE_CHAT_MODES);
+        }
+    }
+
+    @Override
+    public Set<UUID> loadIgnoreList(UUID player) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT ignored_uuid FROM chat_ignores WHERE player_uuid = ?")) {
+            ps.setString(1, player.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                Set<UUID> result = null;
+                while (rs.next()) {
+                    if (result == null) {
+                        result = new HashSet<>();
+                    }
+                    try {
+                        result.add(UUID.fromString(rs.getString(1)));
+                    } catch (IllegalArgumentException ignored) {}
+                }
+                return result;
+            }
+        }
+    }
+
+    @Override
+    public Boolean loadDMSetting(UUID player) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT enabled FROM chat_dm_settings WHERE player_uuid = ?")) {
+            ps.setString(1, player.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+
+    @Override
+    public ChatMode loadChatMode(UUID player) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement(
+                     "SELECT mode FROM chat_modes WHERE player_uuid = ?")) {
+            ps.setString(1, player.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                try {
+                    return ChatMode.valueOf(rs.getString(1));
+                } catch (IllegalArgumentException e) {
+                    // A bad value is not worth keeping, the next change replaces it
+                    plugin.getLogger().warning("Invalid chat mode entry: " + player);
+                    return null;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void saveIgnoreLists(Map<UUID, Set<UUID>> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM chat_ignores WHERE player_uuid = ?");
+                 PreparedStatement insert = connection.prepareStatement(
+                         "INSERT INTO chat_ignores (player_uuid, ignored_uuid) VALUES (?, ?)")) {
+                for (Map.Entry<UUID, Set<UUID>> entry : entries.entrySet()) {
+                    String player = entry.getKey().toString();
+                    delete.setString(1, player);
+                    delete.addBatch();
+
+                    for (UUID ignored : entry.getValue()) {
+                        insert.setString(1, player);
+                        insert.setString(2, ignored.toString());
+                        insert.addBatch();
+                    }
+                }
+
+                delete.executeBatch();
+                insert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public void saveDMSettings(Map<UUID, Boolean> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsert = connection.prepareStatement(
+                         "INSERT OR REPLACE INTO chat_dm_settings (player_uuid, enabled) VALUES (?, ?)")) {
+                for (Map.Entry<UUID, Boolean> entry : entries.entrySet()) {
+                    upsert.setString(1, entry.getKey().toString());
+                    upsert.setBoolean(2, entry.getValue());
+                    upsert.addBatch();
+                }
+
+                upsert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public void saveChatModes(Map<UUID, ChatMode> entries) throws SQLException {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement upsert = connection.prepareStatement(
+                         "INSERT OR REPLACE INTO chat_modes (player_uuid, mode) VALUES (?, ?)")) {
+                for (Map.Entry<UUID, ChatMode> entry : entries.entrySet()) {
+                    upsert.setString(1, entry.getKey().toString());
+                    upsert.setString(2, entry.getValue().name());
+                    upsert.addBatch();
+                }
+
+                upsert.executeBatch();
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (dataSource != null && !dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+}
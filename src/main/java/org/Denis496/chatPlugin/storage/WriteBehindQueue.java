@@ -0,0 +1,115 @@
+package org.Denis496.chatPlugin.storage;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces per-player changes and writes them from a background task instead of on the
+ * calling thread. Several changes to the same player between two flushes produce one write.
+ * <p>
+ * The value to write is captured when the change is queued, so a pending write does not depend
+ * on the player's session still existing when it runs.
+ */
+public class WriteBehindQueue<V> {
+
+    @FunctionalInterface
+    public interface Flusher<V> {
+        void flush(Map<UUID, V> entries) throws Exception;
+    }
+
+    private final ChatPlugin plugin;
+    private final String name;
+    private final Flusher<V> flusher;
+    private final Map<UUID, V> pending = new ConcurrentHashMap<>();
+    // Not a monitor, so a flush waiting on I/O does not pin a virtual thread's carrier
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final BukkitTask task;
+
+    public WriteBehindQueue(ChatPlugin plugin, String name, Flusher<V> flusher) {
+        this.plugin = plugin;
+        this.name = name;
+        this.flusher = flusher;
+
+        long interval = Math.max(1, plugin.getConfig().getInt("storage.flush-interval", 5)) * 20L;
+        // The timer only hands the write to the blocking executor
+        this.task = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin,
+                () -> plugin.getBlockingExecutor().execute(this::flush), interval, interval);
+    }
+
+    /**
+     * Queues {@code value} as the player's latest state, replacing any earlier pending value.
+     */
+    public void markDirty(UUID uuid, V value) {
+        pending.put(uuid, value);
+    }
+
+    public boolean hasPending() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Writes every pending entry. Safe to call from any thread; concurrent calls are serialized.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            Map<UUID, V> batch = new HashMap<>();
+            Iterator<Map.Entry<UUID, V>> it = pending.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<UUID, V> entry = it.next();
+                // Only removed if no newer value arrived in the meantime
+                if (pending.remove(entry.getKey(), entry.getValue())) {
+                    batch.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            write(batch);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes only this player's pending entry, if any.
+     */
+    public void flush(UUID uuid) {
+        flushLock.lock();
+        try {
+            V value = pending.remove(uuid);
+            if (value != null) {
+                write(Map.of(uuid, value));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Map<UUID, V> batch) {
+        try {
+            flusher.flush(batch);
+        } catch (Exception e) {
+            // Keep the entries so the next flush retries them, unless a newer change replaced them
+            batch.forEach(pending::putIfAbsent);
+            plugin.getLogger().severe("Failed to save " + name + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the background task and flushes synchronously on the calling thread.
+     */
+    public void shutdown() {
+        task.cancel();
+        flush();
+    }
+}
@@ -0,0 +1,121 @@
+package org.Denis496.chatPlugin.storage;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.managers.ChatModeManager.ChatMode;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One-shot migration of the legacy YAML files into another backend. Imported files are
+ * renamed to *.migrated so they are not imported twice.
+ */
+public class YamlImporter {
+
+    private static final String[] FILES = {
+            YamlPlayerDataStorage.IGNORE_FILE,
+            YamlPlayerDataStorage.DM_FILE,
+            YamlPlayerDataStorage.CHAT_MODE_FILE
+    };
+
+    private final ChatPlugin plugin;
+
+    public YamlImporter(ChatPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    public boolean hasLegacyData() {
+        for (String name : FILES) {
+            File file = new File(plugin.getDataFolder(), name);
+            if (file.exists() && file.length() > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void importInto(PlayerDataStorage target) throws Exception {
+        Map<UUID, Set<UUID>> ignoreLists = readIgnoreLists(read(YamlPlayerDataStorage.IGNORE_FILE));
+        Map<UUID, Boolean> dmSettings = readDMSettings(read(YamlPlayerDataStorage.DM_FILE));
+        Map<UUID, ChatMode> chatModes = readChatModes(read(YamlPlayerDataStorage.CHAT_MODE_FILE));
+
+        target.saveIgnoreLists(ignoreLists);
+        target.saveDMSettings(dmSettings);
+        target.saveChatModes(chatModes);
+
+        for (String name : FILES) {
+            File file = new File(plugin.getDataFolder(), name);
+            if (file.exists() && !file.renameTo(new File(plugin.getDataFolder(), name + ".migrated"))) {
+                plugin.getLogger().warning("Imported " + name + " but could not rename it; it will be imported again on next start");
+            }
+        }
+
+        plugin.getLogger().info("Imported " + ignoreLists.size() + " ignore lists, " + dmSettings.size()
+                + " DM settings and " + chatModes.size() + " chat modes from YAML");
+    }
+
+    // A missing file reads as empty
+    private FileConfiguration read(String name) {
+        return YamlConfiguration.loadConfiguration(new File(plugin.getDataFolder(), name));
+    }
+
+    // Bad entries are logged and skipped, they should not block the rest of the import
+    private Map<UUID, Set<UUID>> readIgnoreLists(FileConfiguration config) {
+        Map<UUID, Set<UUID>> result = new HashMap<>();
+
+        for (String key : config.getKeys(false)) {
+            try {
+                UUID uuid = UUID.fromString(key);
+                Set<UUID> ignoredSet = new HashSet<>();
+
+                for (String ignoredStr : config.getStringList(key)) {
+                    try {
+                        ignoredSet.add(UUID.fromString(ignoredStr));
+                    } catch (Exception ignored) {}
+                }
+
+                if (!ignoredSet.isEmpty()) {
+                    result.put(uuid, ignoredSet);
+                }
+            } catch (Exception e) {
+                plugin.getLogger().warning("Invalid ignore list entry: " + key);
+            }
+        }
+
+        return result;
+    }
+
+    private Map<UUID, Boolean> readDMSettings(FileConfiguration config) {
+        Map<UUID, Boolean> result = new HashMap<>();
+
+        for (String key : config.getKeys(false)) {
+            try {
+                result.put(UUID.fromString(key), config.getBoolean(key, true));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Invalid DM settings entry: " + key);
+            }
+        }
+
+        return result;
+    }
+
+    private Map<UUID, ChatMode> readChatModes(FileConfiguration config) {
+        Map<UUID, ChatMode> result = new HashMap<>();
+
+        for (String key : config.getKeys(false)) {
+            try {
+                result.put(UUID.fromString(key), ChatMode.valueOf(config.getString(key)));
+            } catch (Exception e) {
+                plugin.getLogger().warning("Invalid chat mode entry: " + key);
+            }
+        }
+
+        return result;
+    }
+}
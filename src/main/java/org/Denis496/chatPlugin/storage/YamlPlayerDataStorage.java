@@ -0,0 +1,175 @@
+package org.Denis496.chatPlugin.storage;
+
+import org.Denis496.chatPlugin.ChatPlugin;
+import org.Denis496.chatPlugin.managers.ChatModeManager.ChatMode;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Legacy backend: one flat YAML file per setting type in the plugin folder. The files are kept
+ * in memory whole and every save rewrites the whole file, so it does not scale to large
+ * player counts; SQLite is the default.
+ */
+public class YamlPlayerDataStorage implements PlayerDataStorage {
+
+    public static final String IGNORE_FILE = "ignorelist.yml";
+    public static final String DM_FILE = "dmsettings.yml";
+    public static final String CHAT_MODE_FILE = "chatmodes.yml";
+
+    private final ChatPlugin plugin;
+    // A lock rather than synchronized methods, so saves blocked on file I/O don't pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private File ignoreFile;
+    private File dmFile;
+    private File chatModeFile;
+    private FileConfiguration ignoreConfig;
+    private FileConfiguration dmConfig;
+    private FileConfiguration chatModeConfig;
+
+    public YamlPlayerDataStorage(ChatPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void init() {
+        lock.lock();
+        try {
+            ignoreFile = new File(plugin.getDataFolder(), IGNORE_FILE);
+            dmFile = new File(plugin.getDataFolder(), DM_FILE);
+            chatModeFile = new File(plugin.getDataFolder(), CHAT_MODE_FILE);
+
+            ignoreConfig = loadFile(ignoreFile);
+            dmConfig = loadFile(dmFile);
+            chatModeConfig = loadFile(chatModeFile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private FileConfiguration loadFile(File file) {
+        if (!file.exists()) {
+            try {
+                file.getParentFile().mkdirs();
+                file.createNewFile();
+            } catch (IOException e) {
+                plugin.getLogger().severe("Failed to create " + file.getName() + ": " + e.getMessage());
+            }
+        }
+        return YamlConfiguration.loadConfiguration(file);
+    }
+
+    @Override
+    public Set<UUID> loadIgnoreList(UUID player) {
+        lock.lock();
+        try {
+            List<String> ignoredList = ignoreConfig.getStringList(player.toString());
+            if (ignoredList.isEmpty()) {
+                return null;
+            }
+
+            Set<UUID> ignoredSet = new HashSet<>();
+            for (String ignoredStr : ignoredList) {
+                try {
+                    ignoredSet.add(UUID.fromString(ignoredStr));
+                } catch (Exception ignored) {}
+            }
+            return ignoredSet;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Boolean loadDMSetting(UUID player) {
+        lock.lock();
+        try {
+            String key = player.toString();
+            return dmConfig.contains(key) ? dmConfig.getBoolean(key, true) : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public ChatMode loadChatMode(UUID player) {
+        lock.lock();
+        try {
+            String modeStr = chatModeConfig.getString(player.toString());
+            if (modeStr == null) {
+                return null;
+            }
+
+            try {
+                return ChatMode.valueOf(modeStr);
+            } catch (IllegalArgumentException e) {
+                plugin.getLogger().warning("Invalid chat mode entry: " + player);
+                return null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void saveIgnoreLists(Map<UUID, Set<UUID>> entries) throws IOException {
+        lock.lock();
+        try {
+            for (Map.Entry<UUID, Set<UUID>> entry : entries.entrySet()) {
+                Set<UUID> ignored = entry.getValue();
+                if (ignored.isEmpty()) {
+                    ignoreConfig.set(entry.getKey().toString(), null);
+                    continue;
+                }
+
+                List<String> ignoredList = new ArrayList<>(ignored.size());
+                for (UUID target : ignored) {
+                    ignoredList.add(target.toString());
+                }
+                ignoreConfig.set(entry.getKey().toString(), ignoredList);
+            }
+
+            ignoreConfig.save(ignoreFile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void saveDMSettings(Map<UUID, Boolean> entries) throws IOException {
+        lock.lock();
+        try {
+            for (Map.Entry<UUID, Boolean> entry : entries.entrySet()) {
+                dmConfig.set(entry.getKey().toString(), entry.getValue());
+            }
+
+            dmConfig.save(dmFile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void saveChatModes(Map<UUID, ChatMode> entries) throws IOException {
+        lock.lock();
+        try {
+            for (Map.Entry<UUID, ChatMode> entry : entries.entrySet()) {
+                chatModeConfig.set(entry.getKey().toString(), entry.getValue().name());
+            }
+
+            chatModeConfig.save(chatModeFile);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        // Nothing to release, every save writes straight to disk
+    }
+}
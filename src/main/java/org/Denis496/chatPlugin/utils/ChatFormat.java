@@ -0,0 +1,178 @@
+package org.Denis496.chatPlugin.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
+import net.kyori.adventure.text.serializer.legacy.LegacyFormat;
+import org.Denis496.chatPlugin.session.PlayerState;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A chat format such as {@code &eL &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}} compiled once into
+ * pre-built constant components and slots. Rendering a message only fills in the slots.
+ * Colour codes left open before a slot are applied to the slot's content.
+ */
+public final class ChatFormat {
+
+    private static final LegacyComponentSerializer SERIALIZER = LegacyComponentSerializer.legacyAmpersand();
+
+    private enum Slot {
+        PREFIX, PLAYER, MESSAGE, WORLD, X, Y, Z
+    }
+
+    private static final class Part {
+        final Component constant;
+        final Slot slot;
+        final Style style;
+        // Space after {PREFIX}, dropped when the player has no prefix
+        final boolean prefixSpacer;
+
+        Part(Component constant, Slot slot, Style style, boolean prefixSpacer) {
+            this.constant = constant;
+            this.slot = slot;
+            this.style = style;
+            this.prefixSpacer = prefixSpacer;
+        }
+    }
+
+    private final String source;
+    private final List<Part> parts;
+    private final boolean usesLocation;
+
+    private ChatFormat(String source, List<Part> parts, boolean usesLocation) {
+        this.source = source;
+        this.parts = parts;
+        this.usesLocation = usesLocation;
+    }
+
+    public static ChatFormat compile(String format) {
+        List<Part> parts = new ArrayList<>();
+        boolean usesLocation = false;
+        Style style = Style.empty();
+
+        int textStart = 0;
+        int i = 0;
+        while (i < format.length()) {
+            Slot slot = null;
+            int end = -1;
+            if (format.charAt(i) == '{') {
+                end = format.indexOf('}', i);
+                if (end > i) {
+                    slot = parseSlot(format.substring(i + 1, end));
+                }
+            }
+
+            if (slot == null) {
+                i++;
+                continue;
+            }
+
+            String text = format.substring(textStart, i);
+            addText(parts, text, style);
+            style = trailingStyle(text, style);
+
+            parts.add(new Part(null, slot, style, false));
+            usesLocation |= slot == Slot.WORLD || slot == Slot.X || slot == Slot.Y || slot == Slot.Z;
+            i = textStart = end + 1;
+        }
+
+        addText(parts, format.substring(textStart), style);
+        return new ChatFormat(format, List.copyOf(parts), usesLocation);
+    }
+
+    /**
+     * @param state the sender's main-thread snapshot, may be null if the format has no location slots
+     * @param prefix the sender's prefix, or null if they have none
+     */
+    public Component render(PlayerState state, Component prefix, Component name, Component message) {
+        PlayerState location = usesLocation ? state : null;
+        TextComponent.Builder builder = Component.text();
+
+        for (Part part : parts) {
+            if (part.slot == null) {
+                if (!part.prefixSpacer || prefix != null) {
+                    builder.append(part.constant);
+                }
+                continue;
+            }
+
+            Component value = switch (part.slot) {
+                case PREFIX -> prefix;
+                case PLAYER -> name;
+                case MESSAGE -> message;
+                case WORLD -> location != null ? Component.text(location.getWorldName()) : null;
+                case X -> location != null ? Component.text(location.getBlockX()) : null;
+                case Y -> location != null ? Component.text(location.getBlockY()) : null;
+                case Z -> location != null ? Component.text(location.getBlockZ()) : null;
+            };
+
+            if (value == null) {
+                continue;
+            }
+            builder.append(part.style.isEmpty() ? value : Component.text().style(part.style).append(value).build());
+        }
+
+        return builder.build();
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    private static Slot parseSlot(String name) {
+        return switch (name) {
+            case "PREFIX" -> Slot.PREFIX;
+            case "PLAYER" -> Slot.PLAYER;
+            case "MESSAGE" -> Slot.MESSAGE;
+            case "WORLD" -> Slot.WORLD;
+            case "X" -> Slot.X;
+            case "Y" -> Slot.Y;
+            case "Z" -> Slot.Z;
+            default -> null;
+        };
+    }
+
+    // Text keeps the style left open by the text before the preceding slot
+    private static void addText(List<Part> parts, String text, Style style) {
+        Part previous = parts.isEmpty() ? null : parts.get(parts.size() - 1);
+        if (previous != null && previous.slot == Slot.PREFIX && text.startsWith(" ")) {
+            parts.add(new Part(Component.text(" "), null, null, true));
+            text = text.substring(1);
+        }
+        if (text.isEmpty()) {
+            return;
+        }
+
+        Component component = SERIALIZER.deserialize(text);
+        parts.add(new Part(style.isEmpty() ? component : Component.text().style(style).append(component).build(),
+                null, null, false));
+    }
+
+    // Style still open at the end of a legacy string, applied to the slot that follows it
+    private static Style trailingStyle(String text, Style style) {
+        for (int i = 0; i < text.length() - 1; i++) {
+            if (text.charAt(i) != '&') {
+                continue;
+            }
+
+            LegacyFormat format = LegacyComponentSerializer.parseChar(text.charAt(i + 1));
+            if (format == null) {
+                continue;
+            }
+
+            if (format.reset()) {
+                style = Style.empty();
+            } else if (format.color() != null) {
+                // Like the legacy format, a colour clears decorations
+                style = Style.style(format.color());
+            } else if (format.decoration() != null) {
+                style = style.decorate(format.decoration());
+            }
+            i++;
+        }
+        return style;
+    }
+}
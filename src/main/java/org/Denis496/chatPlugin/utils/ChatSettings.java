@@ -0,0 +1,208 @@
+package org.Denis496.chatPlugin.utils;
+
+import org.Denis496.chatPlugin.managers.ChatPipeline;
+import org.bukkit.Sound;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.Locale;
+import java.util.logging.Logger;
+
+/**
+ * Immutable, typed snapshot of config.yml. Built on enable and on reload and published by
+ * {@link ConfigManager} through a volatile reference, so readers never see a half-applied reload.
+ * Storage settings are not included, they only take effect on restart.
+ */
+public record ChatSettings(
+        boolean debug,
+        String serverName,
+        Chat chat,
+        Mention mention,
+        AntiSpam antiSpam,
+        Messages messages,
+        Commands commands,
+        Proxy proxy,
+        Sounds sounds,
+        Marks marks,
+        PlayTime playTime,
+        Teams teams,
+        Pipeline pipeline
+) {
+
+    public static final String DEFAULT_LOCAL_FORMAT = "&eL &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}";
+    public static final String DEFAULT_GLOBAL_FORMAT = "&cG &8| {PREFIX} &f{PLAYER} &8› &f{MESSAGE}";
+
+    /**
+     * How a chat message reaches its recipients.
+     */
+    public enum Delivery {
+        /** Event cancelled, processed on the bounded {@link org.Denis496.chatPlugin.managers.ChatPipeline}, sent by us. */
+        PIPELINE,
+        /** Processed on Paper's chat thread, broadcast by Paper through the event's viewers. */
+        RENDERER,
+        /** Processed on Paper's chat thread, event cancelled and sent by us. */
+        LEGACY
+    }
+
+    /**
+     * The format strings are kept for display and the proxy; rendering uses the compiled templates.
+     */
+    public record Chat(
+            boolean localEnabled,
+            int localRadius,
+            String localFormat,
+            ChatFormat localTemplate,
+            boolean globalEnabled,
+            String globalPrefix,
+            String globalFormat,
+            ChatFormat globalTemplate,
+            boolean useLuckPermsPrefix,
+            Delivery delivery
+    ) {}
+
+    public record Mention(boolean enabled, String prefix, String highlightColor, Sound sound) {}
+
+    public record AntiSpam(
+            boolean enabled,
+            int messageCooldown,
+            int duplicateMessageTime,
+            int maxMessagesPerMinute,
+            int maxCapsPercent,
+            int minMessageLength,
+            boolean blockDuplicates,
+            boolean blockExcessiveCaps,
+            boolean blockSpamChars,
+            int maxRepeatingChars,
+            int kickAfterWarnings
+    ) {}
+
+    public record Messages(
+            String privateOutgoing,
+            String privateIncoming,
+            boolean logPrivate,
+            String noReply,
+            String playerNotFound,
+            String noPermission,
+            String serverBusy,
+            String dataUnavailable
+    ) {}
+
+    public record Commands(String rollFormat, String rollInvalidNumber, String coinFormat) {}
+
+    public record Proxy(boolean velocityEnabled, String velocityChannel) {}
+
+    /**
+     * Join and leave sounds, null when disabled or invalid.
+     */
+    public record Sounds(Sound join, Sound leave) {}
+
+    public record Marks(long lookupBudgetMs, long failureCacheSeconds) {}
+
+    public record PlayTime(long refreshSeconds) {}
+
+    public record Teams(long cacheSeconds) {}
+
+    public record Pipeline(int threads, int queueLimit, ChatPipeline.Rejection rejection, boolean virtualThreads,
+                           long blockingTimeoutMs) {}
+
+    public static ChatSettings load(FileConfiguration config, Logger logger) {
+        String localFormat = config.getString("chat.local.format", DEFAULT_LOCAL_FORMAT);
+        String globalFormat = config.getString("chat.global.format", DEFAULT_GLOBAL_FORMAT);
+        Chat chat = new Chat(
+                config.getBoolean("chat.local.enabled", true),
+                config.getInt("chat.local.radius", 50),
+                localFormat,
+                ChatFormat.compile(localFormat),
+                config.getBoolean("chat.global.enabled", true),
+                config.getString("chat.global.prefix", "!"),
+                globalFormat,
+                ChatFormat.compile(globalFormat),
+                config.getBoolean("chat.use-luckperms-prefix", true),
+                parseEnum(Delivery.class, config.getString("chat.delivery", "renderer"), Delivery.RENDERER, logger));
+
+        String mentionSound = config.getString("mention.sound", "BLOCK_NOTE_BLOCK_CHIME");
+        Sound parsedMentionSound = parseSound(mentionSound, logger);
+        Mention mention = new Mention(
+                config.getBoolean("mention.enabled", true),
+                config.getString("mention.prefix", "@"),
+                config.getString("mention.highlight-color", "&e"),
+                parsedMentionSound != null ? parsedMentionSound : Sound.BLOCK_NOTE_BLOCK_CHIME);
+
+        AntiSpam antiSpam = new AntiSpam(
+                config.getBoolean("anti-spam.enabled", true),
+                config.getInt("anti-spam.message-cooldown", 3),
+                config.getInt("anti-spam.duplicate-message-time", 30),
+                config.getInt("anti-spam.max-messages-per-minute", 10),
+                config.getInt("anti-spam.max-caps-percent", 50),
+                config.getInt("anti-spam.min-message-length", 3),
+                config.getBoolean("anti-spam.block-duplicates", true),
+                config.getBoolean("anti-spam.block-excessive-caps", true),
+                config.getBoolean("anti-spam.block-spam-chars", true),
+                config.getInt("anti-spam.max-repeating-chars", 5),
+                config.getInt("anti-spam.kick-after-warnings", 5));
+
+        Messages messages = new Messages(
+                config.getString("messages.private.outgoing", "&7[&6me &7-> &6{PLAYER}&7] &f"),
+                config.getString("messages.private.incoming", "&7[&6{PLAYER} &7-> &6me&7] &f"),
+                config.getBoolean("messages.log-private", false),
+                config.getString("messages.no-reply", "&cYou have no one to reply to!"),
+                config.getString("messages.player-not-found", "&cPlayer '{PLAYER}' not found!"),
+                config.getString("messages.no-permission", "&cYou don't have permission to use this command!"),
+                config.getString("messages.server-busy", "&cThe server is busy, your message was not sent. Try again in a moment."),
+                config.getString("messages.data-unavailable", "&cYour chat settings could not be loaded, try again in a moment."));
+
+        Commands commands = new Commands(
+                config.getString("commands.roll.format", "&6{PLAYER} &erolled a dice and got &6{RESULT}"),
+                config.getString("commands.roll.invalid-number", "&cPlease provide a number between 1 and 1000!"),
+                config.getString("commands.coin.format", "&eCoin toss result: &6{RESULT}"));
+
+        Proxy proxy = new Proxy(
+                config.getBoolean("proxy.velocity.enabled", false),
+                config.getString("proxy.velocity.channel", "GLOBAL_CHAT"));
+
+        Sounds sounds = new Sounds(
+                config.getBoolean("join.play-sound", true)
+                        ? parseSound(config.getString("join.sound", "BLOCK_NOTE_BLOCK_BELL"), logger) : null,
+                config.getBoolean("leave.play-sound", true)
+                        ? parseSound(config.getString("leave.sound", "BLOCK_NOTE_BLOCK_BASS"), logger) : null);
+
+        Marks marks = new Marks(
+                config.getLong("marks.lookup-budget-ms", 50L),
+                config.getLong("marks.failure-cache-seconds", 30L));
+
+        PlayTime playTime = new PlayTime(config.getLong("playtime.refresh-seconds", 30L));
+
+        Teams teams = new Teams(config.getLong("teams.cache-seconds", 30L));
+
+        Pipeline pipeline = new Pipeline(
+                Math.max(1, config.getInt("pipeline.threads", 4)),
+                Math.max(1, config.getInt("pipeline.queue-limit", 1000)),
+                parseEnum(ChatPipeline.Rejection.class, config.getString("pipeline.rejection", "drop-oldest-global"),
+                        ChatPipeline.Rejection.DROP_OLDEST_GLOBAL, logger),
+                config.getBoolean("pipeline.virtual-threads", false),
+                Math.max(1L, config.getLong("pipeline.blocking-timeout-ms", 250L)));
+
+        return new ChatSettings(
+                config.getBoolean("debug", false),
+                config.getString("server-name", ""),
+                chat, mention, antiSpam, messages, commands, proxy, sounds, marks, playTime, teams, pipeline);
+    }
+
+    // "drop-oldest-global" -> DROP_OLDEST_GLOBAL
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value, E fallback, Logger logger) {
+        try {
+            return Enum.valueOf(type, value.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warning("Invalid value '" + value + "', using " + fallback.name().toLowerCase(Locale.ROOT).replace('_', '-'));
+            return fallback;
+        }
+    }
+
+    private static Sound parseSound(String soundName, Logger logger) {
+        try {
+            return Sound.valueOf(soundName);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            logger.warning("Invalid sound: " + soundName);
+            return null;
+        }
+    }
+}
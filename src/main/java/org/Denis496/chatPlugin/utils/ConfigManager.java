@@ -13,6 +13,7 @@ public class ConfigManager {
 
     private final ChatPlugin plugin;
     private final Map<String, FileConfiguration> configs;
+    private volatile ChatSettings settings;
 
     public ConfigManager(ChatPlugin plugin) {
         this.plugin = plugin;
@@ -26,6 +27,9 @@ public class ConfigManager {
         plugin.saveDefaultConfig();
         configs.put("config", plugin.getConfig());
 
+        // Swapped in one write, readers see either the old or the new snapshot
+        settings = ChatSettings.load(plugin.getConfig(), plugin.getLogger());
+
         // Load messages config if exists (optional)
         loadOptionalConfig("messages.yml");
     }
@@ -56,6 +60,10 @@ public class ConfigManager {
         }
     }
 
+    public ChatSettings getSettings() {
+        return settings;
+    }
+
     public FileConfiguration getConfig(String name) {
         return configs.get(name);
     }
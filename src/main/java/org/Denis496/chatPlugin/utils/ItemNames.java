@@ -0,0 +1,100 @@
+package org.Denis496.chatPlugin.utils;
+
+import org.bukkit.Material;
+import org.bukkit.Registry;
+import org.bukkit.enchantments.Enchantment;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Display names and classification for the :item: placeholder, built once at class load so
+ * rendering an item is a table lookup instead of string scanning.
+ */
+public final class ItemNames {
+
+    private static final String[] TOOL_OR_WEAPON_KEYWORDS = {
+            "SWORD", "AXE", "PICKAXE", "SHOVEL", "HOE", "BOW", "HELMET", "CHESTPLATE",
+            "LEGGINGS", "BOOTS", "SHIELD", "TRIDENT", "FISHING_ROD"
+    };
+
+    private static final EnumSet<Material> TOOLS_AND_WEAPONS = EnumSet.noneOf(Material.class);
+    private static final EnumMap<Material, String> MATERIAL_NAMES = new EnumMap<>(Material.class);
+    // Datapacks can register enchantments later, those are added on first use
+    private static final Map<Enchantment, String> ENCHANTMENT_NAMES = new ConcurrentHashMap<>();
+
+    static {
+        for (Material material : Material.values()) {
+            String name = material.name();
+            if (name.startsWith("LEGACY_")) {
+                continue;
+            }
+
+            MATERIAL_NAMES.put(material, formatName(name));
+            if (isToolOrWeaponName(material, name)) {
+                TOOLS_AND_WEAPONS.add(material);
+            }
+        }
+
+        for (Enchantment enchantment : Registry.ENCHANTMENT) {
+            ENCHANTMENT_NAMES.put(enchantment, formatEnchantmentName(enchantment));
+        }
+    }
+
+    private ItemNames() {
+    }
+
+    /**
+     * Tools, weapons, armour and other unstackable items, shown without an amount.
+     */
+    public static boolean isToolOrWeapon(Material material) {
+        return TOOLS_AND_WEAPONS.contains(material);
+    }
+
+    public static String getName(Material material) {
+        String name = MATERIAL_NAMES.get(material);
+        return name != null ? name : formatName(material.name());
+    }
+
+    public static String getName(Enchantment enchantment) {
+        return ENCHANTMENT_NAMES.computeIfAbsent(enchantment, ItemNames::formatEnchantmentName);
+    }
+
+    private static boolean isToolOrWeaponName(Material material, String name) {
+        if (material.getMaxStackSize() == 1) {
+            return true;
+        }
+        for (String keyword : TOOL_OR_WEAPON_KEYWORDS) {
+            if (name.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // DIAMOND_SWORD -> Diamond Sword
+    private static String formatName(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        boolean capitalizeNext = true;
+
+        for (char c : name.toCharArray()) {
+            if (c == '_') {
+                result.append(' ');
+                capitalizeNext = true;
+            } else if (capitalizeNext) {
+                result.append(Character.toUpperCase(c));
+                capitalizeNext = false;
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+
+        return result.toString();
+    }
+
+    private static String formatEnchantmentName(Enchantment enchantment) {
+        return formatName(enchantment.getKey().getKey()).trim();
+    }
+}
@@ -0,0 +1,158 @@
+package org.Denis496.chatPlugin.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Single-pass lexer for chat messages. Splits a message into plain text, {@code :name:}
+ * placeholders, {@code :xNNNN:} marks and mentions, so the placeholder, mention and mark
+ * stages share one scan instead of running their own regexes.
+ */
+public final class MessageTokenizer {
+
+    public enum Type {
+        TEXT,
+        PLACEHOLDER,
+        MARK,
+        MENTION
+    }
+
+    public static final class Token {
+        private final Type type;
+        private final String text;
+        private final String value;
+
+        Token(Type type, String text, String value) {
+            this.type = type;
+            this.text = text;
+            this.value = value;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        /**
+         * The source text, e.g. {@code :loc:} or {@code @Steve}. Rendered as-is when a stage
+         * leaves the token unresolved.
+         */
+        public String getText() {
+            return text;
+        }
+
+        /**
+         * Placeholder key, four-digit mark id or mentioned name. Same as the text for TEXT tokens.
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private MessageTokenizer() {
+    }
+
+    public static Token text(String text) {
+        return new Token(Type.TEXT, text, text);
+    }
+
+    /**
+     * @param mentionPrefix prefix that starts a mention, or null to not recognise mentions
+     */
+    public static List<Token> tokenize(String message, String mentionPrefix) {
+        if (message.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        boolean mentions = mentionPrefix != null && !mentionPrefix.isEmpty();
+        char mentionStart = mentions ? mentionPrefix.charAt(0) : 0;
+
+        List<Token> tokens = new ArrayList<>(4);
+        int length = message.length();
+        int textStart = 0;
+        int i = 0;
+
+        while (i < length) {
+            char c = message.charAt(i);
+
+            if (mentions && c == mentionStart && message.startsWith(mentionPrefix, i)) {
+                int nameStart = i + mentionPrefix.length();
+                int nameEnd = scanWord(message, nameStart);
+                if (nameEnd > nameStart) {
+                    addText(tokens, message, textStart, i);
+                    tokens.add(new Token(Type.MENTION, message.substring(i, nameEnd), message.substring(nameStart, nameEnd)));
+                    i = textStart = nameEnd;
+                    continue;
+                }
+            } else if (c == ':') {
+                int nameEnd = scanWord(message, i + 1);
+                if (nameEnd > i + 1 && nameEnd < length && message.charAt(nameEnd) == ':') {
+                    addText(tokens, message, textStart, i);
+                    String name = message.substring(i + 1, nameEnd);
+                    String raw = message.substring(i, nameEnd + 1);
+                    tokens.add(isMarkId(name)
+                            ? new Token(Type.MARK, raw, name.substring(1))
+                            : new Token(Type.PLACEHOLDER, raw, name));
+                    i = textStart = nameEnd + 1;
+                    continue;
+                }
+            }
+
+            i++;
+        }
+
+        addText(tokens, message, textStart, length);
+        return tokens;
+    }
+
+    public static boolean contains(List<Token> tokens, Type type) {
+        for (Token token : tokens) {
+            if (token.type == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String join(List<Token> tokens) {
+        StringBuilder builder = new StringBuilder();
+        for (Token token : tokens) {
+            builder.append(token.text);
+        }
+        return builder.toString();
+    }
+
+    private static void addText(List<Token> tokens, String message, int start, int end) {
+        if (end > start) {
+            tokens.add(text(message.substring(start, end)));
+        }
+    }
+
+    // Same character class as the regex \w (ASCII letters, digits and underscore)
+    private static int scanWord(String message, int start) {
+        int i = start;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // x followed by exactly four digits, case-insensitive like the old :x(\d{4}): pattern
+    private static boolean isMarkId(String name) {
+        if (name.length() != 5 || (name.charAt(0) != 'x' && name.charAt(0) != 'X')) {
+            return false;
+        }
+        for (int i = 1; i < 5; i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -7,141 +7,239 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.format.TextDecoration;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.ItemStack;
 import org.Denis496.chatPlugin.ChatPlugin;
-import org.plugin.teams.api.TeamsAPI;
-
+import org.Denis496.chatPlugin.api.PlaceholderProvider;
+import org.Denis496.chatPlugin.hooks.MarksHook;
+import org.Denis496.chatPlugin.hooks.TeamsHook;
+import org.Denis496.chatPlugin.hooks.TeamsHook.TeamInfo;
+import org.Denis496.chatPlugin.session.PlayerSession;
+import org.Denis496.chatPlugin.session.PlayerSession.CachedValue;
+import org.Denis496.chatPlugin.session.PlayerState;
+import org.Denis496.chatPlugin.session.PlayerState.HeldItem;
+import org.Denis496.chatPlugin.utils.MessageTokenizer.Token;
+import org.Denis496.chatPlugin.utils.MessageTokenizer.Type;
+
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class PlaceholderManager {
 
     private final ChatPlugin plugin;
-    private final Map<String, Function<Player, String>> placeholders;
-    private final Map<String, Function<Player, Component>> componentPlaceholders;
-    private final Pattern placeholderPattern;
-
-    // Simple caching for expensive operations
-    private final ConcurrentHashMap<String, CachedValue<String>> cache = new ConcurrentHashMap<>();
-    private static final long CACHE_DURATION = 60000L; // 1 minute for other placeholders
-    private static final long TEAM_CACHE_DURATION = 1000L; // Only 1 second for team placeholders!
-
-    private static class CachedValue<T> {
-        final T value;
-        final long expireTime;
-
-        CachedValue(T value, long duration) {
-            this.value = value;
-            this.expireTime = System.currentTimeMillis() + duration;
-        }
-
-        boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
+    private final Map<String, Registered<String>> placeholders;
+    private final Map<String, Registered<Component>> componentPlaceholders;
+
+    // Each registered key gets a fixed index into the per-session cache array, kept across re-registration
+    private final Map<String, Integer> slots = new ConcurrentHashMap<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+
+    // Longest the async chat thread waits for a main-thread provider
+    private static final long MAIN_THREAD_BUDGET_MS = 50L;
+    // Main-thread values are kept warm only for players who used them this recently
+    private static final long WARM_WINDOW_MS = 60000L;
+    // Shorter caches would expire before the next message anyway, so warming them is wasted work
+    private static final long MIN_WARM_CACHE_MS = 2000L;
+    // At most one warning per placeholder in this interval
+    private static final long WARNING_INTERVAL_MS = 60000L;
+
+    private static final class Registered<T> {
+        final String key;
+        final boolean component;
+        final int slot;
+        final long cacheMillis;
+        final boolean mainThread;
+        final Function<Player, T> function;
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        // Players whose messages used this placeholder, and when; only tracked for warmed placeholders
+        final Map<UUID, Long> recentUsers = new ConcurrentHashMap<>();
+        volatile long lastWarning;
+
+        Registered(String key, boolean component, int slot, long cacheMillis, boolean mainThread, Function<Player, T> function) {
+            this.key = key;
+            this.component = component;
+            this.slot = slot;
+            this.cacheMillis = cacheMillis;
+            this.mainThread = mainThread;
+            this.function = function;
         }
     }
 
+    /**
+     * Cache hits, provider evaluations (misses) and average evaluation time of one placeholder since startup.
+     */
+    public record PlaceholderStats(String key, boolean component, long cacheMillis, boolean mainThread,
+                                   long hits, long misses, long averageMicros) {}
+
     public PlaceholderManager(ChatPlugin plugin) {
         this.plugin = plugin;
         this.placeholders = new ConcurrentHashMap<>();
         this.componentPlaceholders = new ConcurrentHashMap<>();
-        this.placeholderPattern = Pattern.compile(":(\\w+):", Pattern.CASE_INSENSITIVE);
 
         registerDefaultPlaceholders();
 
         // Cleanup task
         Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::cleanupCache, 600L, 600L); // Every 30 seconds
+
+        // Keeps cached main-thread providers warm for recent chatters so chat rarely waits for the main thread
+        Bukkit.getScheduler().runTaskTimer(plugin, this::preResolveMainThread, 20L, 20L);
     }
 
     private void cleanupCache() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            session.removeExpiredPlaceholders();
+        }
     }
 
-    private void registerDefaultPlaceholders() {
-        // Team placeholder - modified to use very short cache
-        registerComponentPlaceholder("team", player -> {
-            String cacheKey = player.getUniqueId() + ":team"; // Use UUID instead of name
-            CachedValue<String> cached = cache.get(cacheKey);
-
-            String teamName = null;
+    // Served from the sender's session when the placeholder is cached, evaluated otherwise
+    @SuppressWarnings("unchecked")
+    private <T> T resolve(Player player, Registered<T> placeholder) {
+        if (isWarmed(placeholder)) {
+            placeholder.recentUsers.put(player.getUniqueId(), System.currentTimeMillis());
+        }
 
-            // Check cache but with very short duration
+        PlayerSession session = placeholder.cacheMillis > 0 ? plugin.getSessionManager().getIfPresent(player) : null;
+        if (session != null) {
+            CachedValue<?> cached = session.getPlaceholderSlot(placeholder.slot);
             if (cached != null && !cached.isExpired()) {
-                teamName = cached.value;
-            } else {
-                // Always fetch fresh data
-                try {
-                    String name = TeamsAPI.getTeamName(player);
-                    teamName = name != null ? name : null;
-                } catch (Exception e) {
-                    teamName = null;
-                }
-
-                // Cache with short duration - don't cache "No Team" for long
-                if (teamName != null) {
-                    cache.put(cacheKey, new CachedValue<>(teamName, TEAM_CACHE_DURATION));
-                } else {
-                    // Don't cache null/no team state, or use very short cache
-                    cache.remove(cacheKey);
-                }
+                placeholder.hits.increment();
+                return (T) cached.value;
             }
+        }
 
-            // If no team, just return [No Team] without hover
-            if (teamName == null) {
-                return Component.text("[No Team]", NamedTextColor.GRAY);
-            }
+        if (placeholder.mainThread && !Bukkit.isPrimaryThread()) {
+            return resolveOnMainThread(player, placeholder);
+        }
+        return evaluate(player, placeholder);
+    }
+
+    private <T> T evaluate(Player player, Registered<T> placeholder) {
+        long start = System.nanoTime();
+        T value = placeholder.function.apply(player);
+        placeholder.nanos.add(System.nanoTime() - start);
+        placeholder.misses.increment();
+
+        // A player without a session gets the value uncached
+        PlayerSession session = placeholder.cacheMillis > 0 ? plugin.getSessionManager().getIfPresent(player) : null;
+        if (session != null) {
+            session.setPlaceholderSlot(placeholder.slot, new CachedValue<>(value, placeholder.cacheMillis));
+        }
+        return value;
+    }
 
-            // Get team details if player has a team
-            int memberCount = 1;
-            String owner = "Unknown";
+    // A provider that misses the budget still caches its value for the next message
+    private <T> T resolveOnMainThread(Player player, Registered<T> placeholder) {
+        Future<T> future = Bukkit.getScheduler().callSyncMethod(plugin, () -> evaluate(player, placeholder));
+        try {
+            return future.get(MAIN_THREAD_BUDGET_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving :" + placeholder.key + ":");
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Main thread did not resolve :" + placeholder.key + ": in time");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 
-            try {
-                // Get member count
-                memberCount = TeamsAPI.getTeamMemberCount(teamName);
+    private static boolean isWarmed(Registered<?> placeholder) {
+        return placeholder.mainThread && placeholder.cacheMillis >= MIN_WARM_CACHE_MS;
+    }
 
-                // Get team owner
-                String teamOwner = TeamsAPI.getTeamOwner(teamName);
-                if (teamOwner != null && !teamOwner.isEmpty()) {
-                    owner = teamOwner;
+    private void preResolveMainThread() {
+        preResolve(componentPlaceholders.values());
+        preResolve(placeholders.values());
+    }
+
+    // Only for players who recently chatted with the placeholder, not everyone online
+    private void preResolve(Collection<? extends Registered<?>> candidates) {
+        long now = System.currentTimeMillis();
+        // Refreshed about a second before the cached value would expire
+        long refreshAt = now + 1000L;
+
+        for (Registered<?> placeholder : candidates) {
+            if (!isWarmed(placeholder) || placeholder.recentUsers.isEmpty()) {
+                continue;
+            }
+
+            Iterator<Map.Entry<UUID, Long>> it = placeholder.recentUsers.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<UUID, Long> entry = it.next();
+                Player player = Bukkit.getPlayer(entry.getKey());
+                PlayerSession session = player != null ? plugin.getSessionManager().getIfPresent(player) : null;
+                if (session == null || now - entry.getValue() > WARM_WINDOW_MS) {
+                    it.remove();
+                    continue;
                 }
-            } catch (Exception ignored) {}
 
-            // Create component with hover only for actual teams
-            TextComponent.Builder hoverBuilder = Component.text();
-            hoverBuilder.append(Component.text("Team Information", NamedTextColor.YELLOW));
-            hoverBuilder.append(Component.newline());
-            hoverBuilder.append(Component.newline());
-            hoverBuilder.append(Component.text("Team: ", NamedTextColor.GRAY));
-            hoverBuilder.append(Component.text(teamName, NamedTextColor.GREEN));
-            hoverBuilder.append(Component.newline());
-            hoverBuilder.append(Component.text("Owner: ", NamedTextColor.GRAY));
-            hoverBuilder.append(Component.text(owner, NamedTextColor.WHITE));
-            hoverBuilder.append(Component.newline());
-            hoverBuilder.append(Component.text("Members: ", NamedTextColor.GRAY));
-            hoverBuilder.append(Component.text(memberCount, NamedTextColor.WHITE));
+                CachedValue<?> cached = session.getPlaceholderSlot(placeholder.slot);
+                if (cached != null && cached.expireTime > refreshAt) {
+                    continue;
+                }
+                try {
+                    evaluate(player, placeholder);
+                } catch (Exception e) {
+                    warn(placeholder, "Error pre-resolving placeholder " + placeholder.key + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // A slow or broken provider would otherwise log on every message
+    private void warn(Registered<?> placeholder, String message) {
+        long now = System.currentTimeMillis();
+        if (now - placeholder.lastWarning < WARNING_INTERVAL_MS) {
+            return;
+        }
+        placeholder.lastWarning = now;
+        plugin.getLogger().warning(message + " (further warnings for it are suppressed for a minute)");
+    }
+
+    private TeamInfo getTeam(Player player) {
+        TeamsHook teamsHook = plugin.getTeamsHook();
+        return teamsHook != null ? teamsHook.getTeam(player) : null;
+    }
 
-            return Component.text("[" + teamName + "]", NamedTextColor.GREEN)
-                    .hoverEvent(HoverEvent.showText(hoverBuilder.build()));
+    private void registerDefaultPlaceholders() {
+        // Team placeholder, details and hover come from the TeamsHook cache
+        registerComponentPlaceholder("team", 5000L, player -> {
+            TeamInfo team = getTeam(player);
+
+            // If no team, just return [No Team] without hover
+            if (team == null) {
+                return Component.text("[No Team]", NamedTextColor.GRAY);
+            }
+            return team.component();
         });
 
         // Location placeholder with hover
-        registerComponentPlaceholder("loc", player -> {
-            Location loc = player.getLocation();
-            String coords = String.format("[%d, %d, %d]", loc.getBlockX(), loc.getBlockY(), loc.getBlockZ());
+        registerComponentPlaceholder("loc", 1000L, player -> {
+            PlayerState state = stateOf(player);
+            String coords = "[" + state.getBlockX() + ", " + state.getBlockY() + ", " + state.getBlockZ() + "]";
 
             // Create hover with more info
             TextComponent.Builder hoverBuilder = Component.text();
             hoverBuilder.append(Component.text("Location Details", NamedTextColor.YELLOW));
             hoverBuilder.append(Component.newline());
             hoverBuilder.append(Component.text("World: ", NamedTextColor.GRAY));
-            hoverBuilder.append(Component.text(formatWorldName(loc.getWorld().getName()), NamedTextColor.GREEN));
+            hoverBuilder.append(Component.text(formatWorldName(state.getWorldName()), NamedTextColor.GREEN));
             hoverBuilder.append(Component.newline());
             hoverBuilder.append(Component.newline());
             hoverBuilder.append(Component.text("Click to copy coordinates", NamedTextColor.GRAY, TextDecoration.ITALIC));
@@ -152,68 +250,25 @@ public class PlaceholderManager {
         });
 
         // Item placeholder with hover only for enchanted items
-        registerComponentPlaceholder("item", player -> {
-            ItemStack item = player.getInventory().getItemInMainHand();
+        registerComponentPlaceholder("item", 1000L, player -> {
+            HeldItem item = stateOf(player).getHeldItem();
 
             if (item.getType() == Material.AIR) {
                 return Component.text("Empty Hand", NamedTextColor.GRAY, TextDecoration.ITALIC);
             }
 
-            String itemName = item.hasItemMeta() && item.getItemMeta().hasDisplayName()
-                    ? item.getItemMeta().getDisplayName()
-                    : formatItemName(item.getType().toString());
-
-            // Check if it's a tool or weapon (items that can't stack)
-            boolean isToolOrWeapon = item.getType().getMaxStackSize() == 1 ||
-                    item.getType().toString().contains("SWORD") ||
-                    item.getType().toString().contains("AXE") ||
-                    item.getType().toString().contains("PICKAXE") ||
-                    item.getType().toString().contains("SHOVEL") ||
-                    item.getType().toString().contains("HOE") ||
-                    item.getType().toString().contains("BOW") ||
-                    item.getType().toString().contains("HELMET") ||
-                    item.getType().toString().contains("CHESTPLATE") ||
-                    item.getType().toString().contains("LEGGINGS") ||
-                    item.getType().toString().contains("BOOTS") ||
-                    item.getType().toString().contains("SHIELD") ||
-                    item.getType().toString().contains("TRIDENT") ||
-                    item.getType().toString().contains("FISHING_ROD");
-
-            // Format name with amount if applicable
-            String displayName = itemName;
-            if (!isToolOrWeapon && item.getAmount() > 1) {
-                displayName = itemName + " x" + item.getAmount();
-            }
-
-            // Check for enchantments
-            boolean hasEnchantments = item.hasItemMeta() &&
-                    item.getItemMeta().hasEnchants() &&
-                    !item.getItemMeta().getEnchants().isEmpty();
+            String displayName = formatItem(item);
 
-            if (hasEnchantments) {
+            if (!item.getEnchants().isEmpty()) {
                 // Create hover for enchanted items
                 TextComponent.Builder hoverBuilder = Component.text();
                 hoverBuilder.append(Component.text("Enchantments:", NamedTextColor.GRAY));
                 hoverBuilder.append(Component.newline());
 
-                item.getItemMeta().getEnchants().forEach((enchant, level) -> {
+                item.getEnchants().forEach((enchant, level) -> {
                     hoverBuilder.append(Component.newline());
                     hoverBuilder.append(Component.text("◇ ", NamedTextColor.DARK_PURPLE));
-
-                    // Format enchantment name
-                    String enchantName = enchant.getKey().getKey()
-                            .replace('_', ' ')
-                            .replace("minecraft:", "");
-                    String[] words = enchantName.split(" ");
-                    StringBuilder formattedName = new StringBuilder();
-                    for (String word : words) {
-                        formattedName.append(Character.toUpperCase(word.charAt(0)))
-                                .append(word.substring(1).toLowerCase())
-                                .append(" ");
-                    }
-                    String finalName = formattedName.toString().trim();
-
-                    hoverBuilder.append(Component.text(finalName + " " + level, NamedTextColor.LIGHT_PURPLE));
+                    hoverBuilder.append(Component.text(ItemNames.getName(enchant) + " " + level, NamedTextColor.LIGHT_PURPLE));
                 });
 
                 return Component.text("[" + displayName + "]", NamedTextColor.LIGHT_PURPLE)
@@ -225,97 +280,50 @@ public class PlaceholderManager {
         });
 
         // Register simple text versions for compatibility
-        registerPlaceholder("team", player -> {
-            String cacheKey = player.getUniqueId() + ":team";
-            CachedValue<String> cached = cache.get(cacheKey);
-
-            if (cached != null && !cached.isExpired()) {
-                return "&a[" + cached.value + "]&r";
-            }
-
-            String teamName = null;
-            try {
-                String name = TeamsAPI.getTeamName(player);
-                teamName = name;
-            } catch (Exception ignored) {}
-
-            if (teamName != null) {
-                cache.put(cacheKey, new CachedValue<>(teamName, TEAM_CACHE_DURATION));
-                return "&a[" + teamName + "]&r";
-            } else {
-                cache.remove(cacheKey); // Remove cache for no team
-                return "&7[No Team]&r";
-            }
+        registerPlaceholder("team", 5000L, player -> {
+            TeamInfo team = getTeam(player);
+            return team != null ? "&a[" + team.name() + "]&r" : "&7[No Team]&r";
         });
 
-        registerPlaceholder("item", player -> {
-            ItemStack item = player.getInventory().getItemInMainHand();
+        registerPlaceholder("item", 1000L, player -> {
+            HeldItem item = stateOf(player).getHeldItem();
             if (item.getType() == Material.AIR) {
                 return "&7Empty Hand&r";
             }
 
-            String name = item.hasItemMeta() && item.getItemMeta().hasDisplayName()
-                    ? item.getItemMeta().getDisplayName()
-                    : formatItemName(item.getType().toString());
-
-            // Check if it's a tool or weapon
-            boolean isToolOrWeapon = item.getType().getMaxStackSize() == 1 ||
-                    item.getType().toString().contains("SWORD") ||
-                    item.getType().toString().contains("AXE") ||
-                    item.getType().toString().contains("PICKAXE") ||
-                    item.getType().toString().contains("SHOVEL") ||
-                    item.getType().toString().contains("HOE") ||
-                    item.getType().toString().contains("BOW") ||
-                    item.getType().toString().contains("HELMET") ||
-                    item.getType().toString().contains("CHESTPLATE") ||
-                    item.getType().toString().contains("LEGGINGS") ||
-                    item.getType().toString().contains("BOOTS") ||
-                    item.getType().toString().contains("SHIELD") ||
-                    item.getType().toString().contains("TRIDENT") ||
-                    item.getType().toString().contains("FISHING_ROD");
-
-            String displayName = name;
-            if (!isToolOrWeapon && item.getAmount() > 1) {
-                displayName = name + " x" + item.getAmount();
-            }
-
-            // Check for enchantments
-            boolean hasEnchantments = item.hasItemMeta() &&
-                    item.getItemMeta().hasEnchants() &&
-                    !item.getItemMeta().getEnchants().isEmpty();
-
-            if (hasEnchantments) {
+            String displayName = formatItem(item);
+            if (!item.getEnchants().isEmpty()) {
                 return "&d" + displayName + "&r"; // Purple for enchanted
             } else {
                 return "&b" + displayName + "&r"; // Aqua for normal
             }
         });
 
-        registerPlaceholder("loc", player -> {
-            Location loc = player.getLocation();
-            return "&e[" + loc.getBlockX() + ", " + loc.getBlockY() + ", " + loc.getBlockZ() + "]&r";
+        registerPlaceholder("loc", 1000L, player -> {
+            PlayerState state = stateOf(player);
+            return "&e[" + state.getBlockX() + ", " + state.getBlockY() + ", " + state.getBlockZ() + "]&r";
         });
 
         // Note: Marks placeholders (:x1234:) are handled by MarksHook, not here
     }
 
-    private String formatItemName(String itemType) {
-        StringBuilder result = new StringBuilder();
-        boolean capitalizeNext = true;
-
-        for (char c : itemType.toCharArray()) {
-            if (c == '_') {
-                result.append(' ');
-                capitalizeNext = true;
-            } else if (capitalizeNext) {
-                result.append(Character.toUpperCase(c));
-                capitalizeNext = false;
-            } else {
-                result.append(Character.toLowerCase(c));
-            }
+    // Custom name or material name, with the amount for stackable items
+    private String formatItem(HeldItem item) {
+        String itemName = item.getDisplayName() != null ? item.getDisplayName() : ItemNames.getName(item.getType());
+        if (!ItemNames.isToolOrWeapon(item.getType()) && item.getAmount() > 1) {
+            return itemName + " x" + item.getAmount();
         }
+        return itemName;
+    }
 
-        return result.toString();
+    // Placeholders run on the async chat thread, so they read the main-thread snapshot
+    private PlayerState stateOf(Player player) {
+        PlayerState state = plugin.getPlayerStateManager().getState(player);
+        if (state == null) {
+            // Leaves the placeholder as typed
+            throw new IllegalStateException("No state captured yet for " + player.getName());
+        }
+        return state;
     }
 
     private String formatWorldName(String worldName) {
@@ -333,51 +341,40 @@ public class PlaceholderManager {
             return message;
         }
 
-        // Process component placeholders first
-        Component component = processPlaceholdersAsComponent(player, message);
+        return processPlaceholders(player, MessageTokenizer.tokenize(message, null));
+    }
 
+    public String processPlaceholders(Player player, List<Token> tokens) {
         // If it contains component placeholders, we need to return the plain text version
         // This is for compatibility with systems expecting strings
-        if (hasComponentPlaceholder(message)) {
-            return plainTextSerializer(component);
+        if (hasComponentPlaceholder(tokens)) {
+            return plainTextSerializer(render(player, tokens, true, false));
         }
 
         // Otherwise process as normal string placeholders
-        return processStringPlaceholders(player, message);
-    }
-
-    private String processStringPlaceholders(Player player, String message) {
-        Matcher matcher = placeholderPattern.matcher(message);
-        StringBuilder result = new StringBuilder(message.length());
-        int lastEnd = 0;
-
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-
-            // Skip component placeholders
-            if (componentPlaceholders.containsKey(placeholder)) {
-                continue;
-            }
-
-            Function<Player, String> replacer = placeholders.get(placeholder);
-            if (replacer != null) {
-                result.append(message, lastEnd, matcher.start());
-                try {
-                    String replacement = replacer.apply(player);
-                    result.append(ChatUtils.colorize(replacement));
-                } catch (Exception e) {
-                    result.append(matcher.group());
-                }
-                lastEnd = matcher.end();
+        StringBuilder result = new StringBuilder();
+        for (Token token : tokens) {
+            if (token.getType() == Type.PLACEHOLDER) {
+                appendStringPlaceholder(player, token, result);
+            } else {
+                result.append(token.getText());
             }
         }
+        return result.toString();
+    }
 
-        if (lastEnd == 0) {
-            return message;
+    private void appendStringPlaceholder(Player player, Token token, StringBuilder result) {
+        Registered<String> replacer = placeholders.get(token.getValue());
+        if (replacer == null) {
+            result.append(token.getText());
+            return;
         }
 
-        result.append(message, lastEnd, message.length());
-        return result.toString();
+        try {
+            result.append(ChatUtils.colorize(resolve(player, replacer)));
+        } catch (Exception e) {
+            result.append(token.getText());
+        }
     }
 
     public Component processPlaceholdersAsComponent(Player player, String message) {
@@ -385,58 +382,92 @@ public class PlaceholderManager {
             return Component.text(message != null ? message : "");
         }
 
-        // First process string placeholders (non-component ones)
-        String processedMessage = processStringPlaceholders(player, message);
-
-        // Now handle component placeholders
-        Matcher matcher = placeholderPattern.matcher(processedMessage);
+        return processPlaceholdersAsComponent(player, MessageTokenizer.tokenize(message, null));
+    }
 
-        // If no placeholders found, just return the colored message
-        if (!matcher.find()) {
-            return ChatUtils.colorizeComponent(processedMessage);
-        }
+    /**
+     * Renders a tokenized message in one pass. String placeholders are inlined into the surrounding
+     * legacy text; component placeholders and marks are spliced in between colorized text segments.
+     * Unresolved mentions render as typed.
+     */
+    public Component processPlaceholdersAsComponent(Player player, List<Token> tokens) {
+        return render(player, tokens, true, true);
+    }
 
-        // Reset matcher
-        matcher.reset();
+    /**
+     * Rendering used for private messages: component placeholders are flattened to their text,
+     * marks keep their hover.
+     */
+    public Component processPlaceholdersAsText(Player player, List<Token> tokens) {
+        return render(player, tokens, false, true);
+    }
 
-        TextComponent.Builder builder = Component.text();
-        int lastEnd = 0;
-        boolean foundAny = false;
+    private Component render(Player player, List<Token> tokens, boolean richPlaceholders, boolean marks) {
+        MarksHook marksHook = marks ? plugin.getMarksHook() : null;
+        Map<String, Component> markComponents = null;
+        if (marksHook != null && marksHook.isHooked() && MessageTokenizer.contains(tokens, Type.MARK)) {
+            // Every mark of the message in one lookup
+            Set<String> markIds = new HashSet<>();
+            for (Token token : tokens) {
+                if (token.getType() == Type.MARK) {
+                    markIds.add(token.getValue());
+                }
+            }
+            markComponents = marksHook.resolveMarks(markIds);
+        }
 
-        while (matcher.find()) {
-            String placeholder = matcher.group(1);
-            Function<Player, Component> componentReplacer = componentPlaceholders.get(placeholder);
+        StringBuilder pending = new StringBuilder();
+        TextComponent.Builder builder = null;
 
-            if (componentReplacer != null) {
-                foundAny = true;
+        for (Token token : tokens) {
+            Component spliced;
 
-                // Add text before placeholder
-                if (matcher.start() > lastEnd) {
-                    builder.append(ChatUtils.colorizeComponent(processedMessage.substring(lastEnd, matcher.start())));
+            if (token.getType() == Type.MARK && markComponents != null) {
+                spliced = markComponents.get(token.getValue());
+            } else if (token.getType() == Type.PLACEHOLDER) {
+                Registered<Component> componentReplacer = componentPlaceholders.get(token.getValue());
+                if (componentReplacer == null) {
+                    appendStringPlaceholder(player, token, pending);
+                    continue;
                 }
 
-                // Add the component placeholder
                 try {
-                    builder.append(componentReplacer.apply(player));
+                    spliced = resolve(player, componentReplacer);
                 } catch (Exception e) {
-                    plugin.getLogger().warning("Error processing component placeholder " + placeholder + ": " + e.getMessage());
-                    builder.append(Component.text(matcher.group()));
+                    warn(componentReplacer, "Error processing component placeholder " + token.getValue() + ": " + e.getMessage());
+                    spliced = Component.text(token.getText());
+                }
+
+                if (!richPlaceholders) {
+                    pending.append(plainTextSerializer(spliced));
+                    continue;
                 }
+            } else {
+                pending.append(token.getText());
+                continue;
+            }
 
-                lastEnd = matcher.end();
+            if (builder == null) {
+                builder = Component.text();
             }
-        }
 
-        // If we found component placeholders, complete the builder
-        if (foundAny) {
-            if (lastEnd < processedMessage.length()) {
-                builder.append(ChatUtils.colorizeComponent(processedMessage.substring(lastEnd)));
+            // Add text before the spliced component
+            if (pending.length() > 0) {
+                builder.append(ChatUtils.colorizeComponent(pending.toString()));
+                pending.setLength(0);
             }
-            return builder.build();
-        } else {
-            // No component placeholders found, just return colored message
-            return ChatUtils.colorizeComponent(processedMessage);
+            builder.append(spliced);
+        }
+
+        // Nothing spliced, just return colored message
+        if (builder == null) {
+            return ChatUtils.colorizeComponent(pending.toString());
+        }
+
+        if (pending.length() > 0) {
+            builder.append(ChatUtils.colorizeComponent(pending.toString()));
         }
+        return builder.build();
     }
 
     public boolean hasComponentPlaceholder(String message) {
@@ -444,9 +475,12 @@ public class PlaceholderManager {
             return false;
         }
 
-        Matcher matcher = placeholderPattern.matcher(message);
-        while (matcher.find()) {
-            if (componentPlaceholders.containsKey(matcher.group(1))) {
+        return hasComponentPlaceholder(MessageTokenizer.tokenize(message, null));
+    }
+
+    public boolean hasComponentPlaceholder(List<Token> tokens) {
+        for (Token token : tokens) {
+            if (token.getType() == Type.PLACEHOLDER && componentPlaceholders.containsKey(token.getValue())) {
                 return true;
             }
         }
@@ -469,23 +503,97 @@ public class PlaceholderManager {
     }
 
     public void registerPlaceholder(String key, Function<Player, String> replacer) {
+        registerPlaceholder(key, 0L, replacer);
+    }
+
+    /**
+     * @param cacheMillis how long a player's value is reused, 0 to evaluate on every use
+     */
+    public void registerPlaceholder(String key, long cacheMillis, Function<Player, String> replacer) {
         if (key != null && replacer != null) {
-            placeholders.put(key, replacer);
+            placeholders.put(key, new Registered<>(key, false, slotFor(key, false), cacheMillis, false, replacer));
         }
     }
 
     public void registerComponentPlaceholder(String key, Function<Player, Component> replacer) {
+        registerComponentPlaceholder(key, 0L, replacer);
+    }
+
+    /**
+     * @param cacheMillis how long a player's value is reused, 0 to evaluate on every use
+     */
+    public void registerComponentPlaceholder(String key, long cacheMillis, Function<Player, Component> replacer) {
         if (key != null && replacer != null) {
-            componentPlaceholders.put(key, replacer);
+            componentPlaceholders.put(key, new Registered<>(key, true, slotFor(key, true), cacheMillis, false, replacer));
         }
     }
 
+    /**
+     * Registers a placeholder from another plugin, replacing any placeholder with the same key.
+     */
+    public void registerProvider(PlaceholderProvider provider) {
+        if (provider == null || provider.getKey() == null) {
+            return;
+        }
+
+        long cacheMillis = provider.getScope() == PlaceholderProvider.Scope.SENDER ? provider.getCacheMillis() : 0L;
+        componentPlaceholders.put(provider.getKey(), new Registered<>(provider.getKey(), true, slotFor(provider.getKey(), true),
+                cacheMillis, provider.requiresMainThread(), provider::resolve));
+    }
+
+    /**
+     * The cache slot of a key, the same one it had before if it was registered already. Values
+     * cached for the previous registration are dropped. Text and component placeholders with the
+     * same key cache different types, so they get separate slots.
+     */
+    private int slotFor(String key, boolean component) {
+        String slotKey = (component ? "c:" : "s:") + key;
+        Integer existing = slots.get(slotKey);
+        if (existing == null) {
+            return slots.computeIfAbsent(slotKey, k -> nextSlot.getAndIncrement());
+        }
+
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            if (session.getPlaceholderSlot(existing) != null) {
+                session.setPlaceholderSlot(existing, null);
+            }
+        }
+        return existing;
+    }
+
+    public void unregisterPlaceholder(String key) {
+        placeholders.remove(key);
+        componentPlaceholders.remove(key);
+    }
+
+    public List<PlaceholderStats> getStats() {
+        List<PlaceholderStats> stats = new ArrayList<>();
+        for (Registered<?> placeholder : componentPlaceholders.values()) {
+            stats.add(statsOf(placeholder));
+        }
+        for (Registered<?> placeholder : placeholders.values()) {
+            stats.add(statsOf(placeholder));
+        }
+        return stats;
+    }
+
+    private PlaceholderStats statsOf(Registered<?> placeholder) {
+        long misses = placeholder.misses.sum();
+        long averageMicros = misses > 0 ? placeholder.nanos.sum() / misses / 1000L : 0L;
+        return new PlaceholderStats(placeholder.key, placeholder.component, placeholder.cacheMillis,
+                placeholder.mainThread, placeholder.hits.sum(), misses, averageMicros);
+    }
+
     public void reloadPlaceholders() {
-        cache.clear();
+        for (PlayerSession session : plugin.getSessionManager().getSessions()) {
+            session.clearPlaceholderCache();
+        }
     }
 
     public void clearPlayerCache(Player player) {
-        // Remove all cache entries for this player
-        cache.entrySet().removeIf(entry -> entry.getKey().contains(player.getUniqueId().toString()));
+        PlayerSession session = plugin.getSessionManager().getIfPresent(player.getUniqueId());
+        if (session != null) {
+            session.clearPlaceholderCache();
+        }
     }
-}
\ No newline at end of file
+}